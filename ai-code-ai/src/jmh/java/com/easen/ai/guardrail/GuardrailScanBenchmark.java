@@ -0,0 +1,135 @@
+package com.easen.ai.guardrail;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.UserMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * 护轨扫描基准测试
+ * 对比逐词 contains + 逐条正则的旧实现与 Aho-Corasick 扫描 + 合并正则的现实现，
+ * 输入取典型的用户提示词长度，输出取典型的生成代码长度（均不命中，即每次都要完整扫描）
+ * <p>
+ * 运行：mvn -pl ai-code-ai -am -P jmh test-compile exec:exec
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GuardrailScanBenchmark {
+
+    private static final List<String> INPUT_WORDS = Arrays.asList(
+            "忽略之前的指令", "ignore previous instructions", "ignore above",
+            "破解", "hack", "绕过", "bypass", "越狱", "jailbreak"
+    );
+
+    private static final List<Pattern> INJECTION_PATTERNS = Arrays.asList(
+            Pattern.compile("(?i)ignore\\s+(?:previous|above|all)\\s+(?:instructions?|commands?|prompts?)"),
+            Pattern.compile("(?i)(?:forget|disregard)\\s+(?:everything|all)\\s+(?:above|before)"),
+            Pattern.compile("(?i)(?:pretend|act|behave)\\s+(?:as|like)\\s+(?:if|you\\s+are)"),
+            Pattern.compile("(?i)system\\s*:\\s*you\\s+are"),
+            Pattern.compile("(?i)new\\s+(?:instructions?|commands?|prompts?)\\s*:")
+    );
+
+    private static final List<String> OUTPUT_WORDS = List.of(
+            "密码", "password", "secret", "token",
+            "api key", "私钥", "证书", "credential"
+    );
+
+    private static final String PROMPT_SAMPLE = "帮我做一个个人博客网站，首页展示文章列表，支持按标签筛选，"
+            + "文章详情页有目录导航和评论区，整体风格简洁，适配移动端。Please use a clean layout. ";
+
+    private static final String CODE_SAMPLE = "<div class=\"card\">\n  <h2 class=\"card-title\">{{ title }}</h2>\n"
+            + "  <p class=\"card-body\">{{ summary }}</p>\n  <button @click=\"open(id)\">阅读全文</button>\n</div>\n";
+
+    /**
+     * 用户提示词长度（护轨限制 1000 字以内）
+     */
+    @Param({"100", "1000"})
+    private int promptLength;
+
+    /**
+     * 生成内容长度
+     */
+    @Param({"4096", "65536"})
+    private int outputLength;
+
+    private UserMessage prompt;
+
+    private AiMessage output;
+
+    private PromptSafetyInputGuardrail inputGuardrail;
+
+    private RetryOutputGuardrail outputGuardrail;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        prompt = UserMessage.from(repeat(PROMPT_SAMPLE, promptLength));
+        output = AiMessage.from(repeat(CODE_SAMPLE, outputLength));
+        inputGuardrail = new PromptSafetyInputGuardrail();
+        outputGuardrail = new RetryOutputGuardrail();
+    }
+
+    @Benchmark
+    public boolean inputLegacy() {
+        String input = prompt.singleText();
+        String lowerInput = input.toLowerCase();
+        for (String word : INPUT_WORDS) {
+            if (lowerInput.contains(word.toLowerCase())) {
+                return false;
+            }
+        }
+        for (Pattern pattern : INJECTION_PATTERNS) {
+            if (pattern.matcher(input).find()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Benchmark
+    public boolean inputScanner() {
+        return inputGuardrail.validate(prompt).isSuccess();
+    }
+
+    @Benchmark
+    public boolean outputLegacy() {
+        String lowerOutput = output.text().toLowerCase();
+        for (String word : OUTPUT_WORDS) {
+            if (lowerOutput.contains(word.toLowerCase())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Benchmark
+    public boolean outputScanner() {
+        return outputGuardrail.validate(output).isSuccess();
+    }
+
+    private static String repeat(String sample, int length) {
+        StringBuilder builder = new StringBuilder(length + sample.length());
+        while (builder.length() < length) {
+            builder.append(sample);
+        }
+        return builder.substring(0, length);
+    }
+}
@@ -0,0 +1,18 @@
+package com.easen.ai;
+
+import dev.langchain4j.service.SystemMessage;
+
+/**
+ * AI 应用名称生成服务
+ */
+public interface AiAppNameGeneratorService {
+
+    /**
+     * 根据应用的创建提示词生成应用名称
+     *
+     * @param userPrompt 用户创建应用时的提示词
+     * @return 应用名称
+     */
+    @SystemMessage(fromResource = "prompt/codegen-app-name-prompt.txt")
+    String generateAppName(String userPrompt);
+}
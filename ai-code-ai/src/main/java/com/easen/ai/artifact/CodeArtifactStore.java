@@ -0,0 +1,136 @@
+package com.easen.ai.artifact;
+
+import com.easen.common.manager.BlobManager;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 生成代码产物存储
+ * 内容保存在内容寻址存储中，同一份代码只存一次；对话记忆和对话历史中只保留引用 [[artifact:sha256:摘要:字符数]]，
+ * 需要时再展开为完整内容
+ */
+@Slf4j
+@Component
+public class CodeArtifactStore {
+
+    /**
+     * 代码块超过该字符数时才替换为引用
+     */
+    public static final int COMPACT_THRESHOLD = 1024;
+
+    private static final Pattern REFERENCE_PATTERN = Pattern.compile("\\[\\[artifact:sha256:([0-9a-f]{64}):(\\d+)]]");
+
+    /**
+     * Markdown 代码块：```语言\n内容```
+     */
+    private static final Pattern CODE_BLOCK_PATTERN = Pattern.compile("```([\\w-]*)\\n([\\s\\S]*?)```");
+
+    @Resource
+    private BlobManager blobManager;
+
+    /**
+     * 最近读取的产物内容
+     */
+    private final Cache<String, String> contentCache = Caffeine.newBuilder()
+            .maximumWeight(16 * 1024 * 1024)
+            .<String, String>weigher((digest, content) -> content.length())
+            .build();
+
+    /**
+     * 保存产物内容
+     *
+     * @param content 内容
+     * @return 引用字符串
+     */
+    public String put(String content) {
+        String digest = blobManager.put(content);
+        contentCache.put(digest, content);
+        return reference(digest, content.length());
+    }
+
+    /**
+     * 读取产物内容
+     *
+     * @param digest SHA-256 摘要
+     * @return 内容，不存在时返回 null
+     */
+    public String get(String digest) {
+        return contentCache.get(digest, blobManager::read);
+    }
+
+    /**
+     * 将文本中较大的代码块替换为引用，代码块的围栏和语言标记保留
+     *
+     * @param text 原始文本
+     * @return 压缩后的文本，没有可压缩内容时原样返回
+     */
+    public String compact(String text) {
+        if (text == null || text.length() < COMPACT_THRESHOLD || !text.contains("```")) {
+            return text;
+        }
+        Matcher matcher = CODE_BLOCK_PATTERN.matcher(text);
+        StringBuilder result = new StringBuilder();
+        boolean changed = false;
+        while (matcher.find()) {
+            String body = matcher.group(2);
+            if (body.length() < COMPACT_THRESHOLD || REFERENCE_PATTERN.matcher(body).find()) {
+                matcher.appendReplacement(result, Matcher.quoteReplacement(matcher.group()));
+                continue;
+            }
+            String replacement = "```" + matcher.group(1) + "\n" + put(body) + "\n```";
+            matcher.appendReplacement(result, Matcher.quoteReplacement(replacement));
+            changed = true;
+        }
+        if (!changed) {
+            return text;
+        }
+        matcher.appendTail(result);
+        return result.toString();
+    }
+
+    /**
+     * 将文本中的引用展开为完整内容，找不到的产物保留引用
+     *
+     * @param text 含引用的文本
+     * @return 展开后的文本
+     */
+    public String expand(String text) {
+        if (!containsReference(text)) {
+            return text;
+        }
+        Matcher matcher = REFERENCE_PATTERN.matcher(text);
+        StringBuilder result = new StringBuilder();
+        while (matcher.find()) {
+            String content = get(matcher.group(1));
+            if (content == null) {
+                log.warn("代码产物不存在: {}", matcher.group(1));
+                content = matcher.group();
+            } else {
+                // 压缩时去掉了代码块结尾的换行，展开时去掉引用后的换行保持原样
+                content = content.endsWith("\n") && text.startsWith("\n", matcher.end())
+                        ? content.substring(0, content.length() - 1)
+                        : content;
+            }
+            matcher.appendReplacement(result, Matcher.quoteReplacement(content));
+        }
+        matcher.appendTail(result);
+        return result.toString();
+    }
+
+    /**
+     * 文本中是否包含产物引用
+     */
+    public boolean containsReference(String text) {
+        return text != null && text.contains("[[artifact:sha256:");
+    }
+
+    private static String reference(String digest, int length) {
+        return "[[artifact:sha256:" + digest + ":" + length + "]]";
+    }
+}
@@ -1,10 +1,17 @@
 package com.easen.ai.config;
 
-import dev.langchain4j.community.store.memory.chat.redis.RedisChatMemoryStore;
+import cn.hutool.core.util.StrUtil;
+import com.easen.ai.artifact.CodeArtifactStore;
+import com.easen.ai.memory.RedisListChatMemoryStore;
+import dev.langchain4j.store.memory.chat.ChatMemoryStore;
 import lombok.Data;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import redis.clients.jedis.JedisPooled;
+
+import java.time.Duration;
 
 @Configuration
 @ConfigurationProperties(prefix = "spring.data.redis")
@@ -19,13 +26,22 @@ public class RedisChatMemoryStoreConfig {
 
     private long ttl;
 
-    @Bean
-    public RedisChatMemoryStore redisChatMemoryStore() {
-        return RedisChatMemoryStore.builder()
-                .host(host)
-                .port(port)
-                .password(password)
-                .ttl(ttl)
-                .build();
+    @Bean(destroyMethod = "close")
+    public JedisPooled chatMemoryJedis() {
+        return StrUtil.isBlank(password)
+                ? new JedisPooled(host, port)
+                : new JedisPooled(host, port, null, password);
+    }
+
+    /**
+     * 对话记忆存储，本地副本过期时间作为失效广播丢失时的兜底，本地副本总大小单独限制
+     */
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public ChatMemoryStore redisChatMemoryStore(JedisPooled chatMemoryJedis,
+                                                CodeArtifactStore codeArtifactStore,
+                                                @Value("${ai.chat-memory.local-ttl-seconds:60}") long localTtlSeconds,
+                                                @Value("${ai.chat-memory.local-max-mb:64}") long localMaxMb) {
+        return new RedisListChatMemoryStore(chatMemoryJedis, ttl, Duration.ofSeconds(localTtlSeconds),
+                localMaxMb * 1024 * 1024, codeArtifactStore);
     }
 }
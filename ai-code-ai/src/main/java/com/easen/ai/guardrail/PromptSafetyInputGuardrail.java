@@ -5,8 +5,10 @@ import dev.langchain4j.guardrail.InputGuardrail;
 import dev.langchain4j.guardrail.InputGuardrailResult;
 
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 /**
  * Prompt 安全审查护轨
@@ -19,15 +21,32 @@ public class PromptSafetyInputGuardrail implements InputGuardrail {
             "破解", "hack", "绕过", "bypass", "越狱", "jailbreak"
     );
 
+    // 敏感词扫描器（Aho-Corasick 自动机，一次扫描匹配全部敏感词）
+    private static final SensitiveWordScanner SENSITIVE_WORD_SCANNER = new SensitiveWordScanner(SENSITIVE_WORDS);
+
     // 注入攻击模式
-    private static final List<Pattern> INJECTION_PATTERNS = Arrays.asList(
-            Pattern.compile("(?i)ignore\\s+(?:previous|above|all)\\s+(?:instructions?|commands?|prompts?)"),
-            Pattern.compile("(?i)(?:forget|disregard)\\s+(?:everything|all)\\s+(?:above|before)"),
-            Pattern.compile("(?i)(?:pretend|act|behave)\\s+(?:as|like)\\s+(?:if|you\\s+are)"),
-            Pattern.compile("(?i)system\\s*:\\s*you\\s+are"),
-            Pattern.compile("(?i)new\\s+(?:instructions?|commands?|prompts?)\\s*:")
+    private static final List<String> INJECTION_REGEXES = Arrays.asList(
+            "ignore\\s+(?:previous|above|all)\\s+(?:instructions?|commands?|prompts?)",
+            "(?:forget|disregard)\\s+(?:everything|all)\\s+(?:above|before)",
+            "(?:pretend|act|behave)\\s+(?:as|like)\\s+(?:if|you\\s+are)",
+            "system\\s*:\\s*you\\s+are",
+            "new\\s+(?:instructions?|commands?|prompts?)\\s*:"
     );
 
+    // 合并为一个预编译的正则，一次扫描检查所有注入模式
+    private static final Pattern INJECTION_PATTERN = Pattern.compile(INJECTION_REGEXES.stream()
+            .map(regex -> "(?:" + regex + ")")
+            .collect(Collectors.joining("|", "(?i)", "")));
+
+    /**
+     * 热更新敏感词列表
+     *
+     * @param sensitiveWords 新的敏感词列表
+     */
+    public static void reloadSensitiveWords(Collection<String> sensitiveWords) {
+        SENSITIVE_WORD_SCANNER.reload(sensitiveWords);
+    }
+
     @Override
     public InputGuardrailResult validate(UserMessage userMessage) {
         String input = userMessage.singleText();
@@ -40,17 +59,12 @@ public class PromptSafetyInputGuardrail implements InputGuardrail {
             return fatal("输入内容不能为空");
         }
         // 检查敏感词
-        String lowerInput = input.toLowerCase();
-        for (String sensitiveWord : SENSITIVE_WORDS) {
-            if (lowerInput.contains(sensitiveWord.toLowerCase())) {
-                return fatal("输入包含不当内容，请修改后重试");
-            }
+        if (SENSITIVE_WORD_SCANNER.containsAny(input)) {
+            return fatal("输入包含不当内容，请修改后重试");
         }
         // 检查注入攻击模式
-        for (Pattern pattern : INJECTION_PATTERNS) {
-            if (pattern.matcher(input).find()) {
-                return fatal("检测到恶意输入，请求被拒绝");
-            }
+        if (INJECTION_PATTERN.matcher(input).find()) {
+            return fatal("检测到恶意输入，请求被拒绝");
         }
         return success();
     }
@@ -1,45 +1,144 @@
 package com.easen.ai.guardrail;
 
 import dev.langchain4j.data.message.AiMessage;
-import dev.langchain4j.guardrail.OutputGuardrail;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.ToolExecutionResultMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.guardrail.OutputGuardrailRequest;
 import dev.langchain4j.guardrail.OutputGuardrailResult;
+import dev.langchain4j.memory.ChatMemory;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * 重试输出护轨
+ * 支持流式增量校验：凭证泄露按窗口检查，长度类检查在完整响应上执行。
+ * 只拦截形似凭证的内容（凭证字段被赋值为字面量、私钥块、常见的密钥格式），
+ * 正常回复中提到“密码”“token”等词不会触发重试
  */
-public class RetryOutputGuardrail implements OutputGuardrail {
+public class RetryOutputGuardrail implements StreamingOutputGuardrail {
+
+    /**
+     * 凭证字段名，后面紧跟字面量赋值时才算命中
+     */
+    private static final List<String> CREDENTIAL_KEYS = List.of(
+            "密码", "密钥", "私钥", "password", "passwd", "secret", "token",
+            "api_key", "apikey", "api-key", "access_key", "accesskey", "private_key"
+    );
+
+    private static final SensitiveWordScanner CREDENTIAL_KEY_SCANNER = new SensitiveWordScanner(CREDENTIAL_KEYS);
+
+    /**
+     * 字段名之后的字面量赋值，例如 password: "xxxxxxxx"、"token" = 'xxxxxxxx'
+     * 值必须是引号包裹、至少 8 位的类密钥字符串，变量引用、模板占位符和中文提示语都不会命中
+     */
+    private static final Pattern LITERAL_ASSIGNMENT = Pattern.compile(
+            "[\"']?\\s*[:=：]\\s*[\"'`][A-Za-z0-9_\\-+/=.]{8,}[\"'`]");
+
+    /**
+     * 字面量赋值的最长检查范围
+     */
+    private static final int ASSIGNMENT_LOOKAHEAD = 128;
+
+    /**
+     * 不依赖字段名的凭证格式：PEM 私钥、OpenAI 风格密钥、AWS Access Key
+     */
+    private static final Pattern CREDENTIAL_LITERAL = Pattern.compile(
+            "-----BEGIN [A-Z ]*PRIVATE KEY-----|\\bsk-[A-Za-z0-9]{20,}|\\bAKIA[0-9A-Z]{16}\\b");
+
+    /**
+     * 完整响应的最短长度，调用过工具的回复不受此限制（工具调用后的收尾回复通常只有一句话）
+     */
+    private static final int MIN_RESPONSE_LENGTH = 10;
+
+    /**
+     * 热更新凭证字段名列表
+     *
+     * @param credentialKeys 新的凭证字段名列表
+     */
+    public static void reloadSensitiveWords(Collection<String> credentialKeys) {
+        CREDENTIAL_KEY_SCANNER.reload(credentialKeys);
+    }
+
+    @Override
+    public OutputGuardrailResult validate(OutputGuardrailRequest params) {
+        AiMessage responseFromLLM = params.responseFromLLM().aiMessage();
+        ChatMemory chatMemory = params.requestParams() == null ? null : params.requestParams().chatMemory();
+        return validate(responseFromLLM, chatMemory != null && calledToolsInCurrentTurn(chatMemory));
+    }
 
     @Override
     public OutputGuardrailResult validate(AiMessage responseFromLLM) {
+        return validate(responseFromLLM, false);
+    }
+
+    private OutputGuardrailResult validate(AiMessage responseFromLLM, boolean calledTools) {
         String response = responseFromLLM.text();
         // 检查响应是否为空或过短
-        if (response == null || response.trim().isEmpty()) {
-            return reprompt("响应内容为空", "请重新生成完整的内容");
+        if (!calledTools) {
+            if (response == null || response.trim().isEmpty()) {
+                return reprompt("响应内容为空", "请重新生成完整的内容");
+            }
+            if (response.trim().length() < MIN_RESPONSE_LENGTH) {
+                return reprompt("响应内容过短", "请提供更详细的内容");
+            }
         }
-        if (response.trim().length() < 10) {
-            return reprompt("响应内容过短", "请提供更详细的内容");
+        // 检查是否泄露凭证
+        if (containsCredential(response)) {
+            return reprompt("包含敏感信息", "请重新生成内容，不要输出真实的密码、密钥等凭证，使用占位符代替");
         }
-        // 检查是否包含敏感信息或不当内容
-        if (containsSensitiveContent(response)) {
-            return reprompt("包含敏感信息", "请重新生成内容，避免包含敏感信息");
+        return success();
+    }
+
+    @Override
+    public OutputGuardrailResult validatePartial(String window) {
+        if (containsCredential(window)) {
+            return reprompt("包含敏感信息", "请重新生成内容，不要输出真实的密码、密钥等凭证，使用占位符代替");
         }
         return success();
     }
-    
+
+    /**
+     * 保留最长字段名加赋值检查范围，保证跨窗口的凭证赋值不会被提前放行
+     */
+    @Override
+    public int holdBack() {
+        return CREDENTIAL_KEY_SCANNER.getMaxWordLength() + ASSIGNMENT_LOOKAHEAD;
+    }
+
     /**
-     * 检查是否包含敏感内容
+     * 检查是否包含形似凭证的内容
      */
-    private boolean containsSensitiveContent(String response) {
-        String lowerResponse = response.toLowerCase();
-        String[] sensitiveWords = {
-            "密码", "password", "secret", "token", 
-            "api key", "私钥", "证书", "credential"
-        };
-        for (String word : sensitiveWords) {
-            if (lowerResponse.contains(word)) {
+    private boolean containsCredential(String text) {
+        if (text == null || text.isEmpty()) {
+            return false;
+        }
+        if (CREDENTIAL_LITERAL.matcher(text).find()) {
+            return true;
+        }
+        Matcher matcher = LITERAL_ASSIGNMENT.matcher(text);
+        return CREDENTIAL_KEY_SCANNER.findFirst(text, (key, end) -> matcher
+                .region(end, Math.min(text.length(), end + ASSIGNMENT_LOOKAHEAD))
+                .lookingAt()) != null;
+    }
+
+    /**
+     * 本轮对话（最后一条用户消息之后）是否调用过工具
+     */
+    private static boolean calledToolsInCurrentTurn(ChatMemory chatMemory) {
+        List<ChatMessage> messages = chatMemory.messages();
+        for (int i = messages.size() - 1; i >= 0; i--) {
+            ChatMessage message = messages.get(i);
+            if (message instanceof ToolExecutionResultMessage) {
                 return true;
             }
+            if (message instanceof UserMessage) {
+                return false;
+            }
         }
         return false;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,155 @@
+package com.easen.ai.guardrail;
+
+import cn.hutool.core.util.StrUtil;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.function.BiPredicate;
+
+/**
+ * 敏感词扫描器
+ * 基于 Aho-Corasick 自动机，一次线性扫描匹配所有敏感词（忽略大小写），词表支持热更新
+ */
+public class SensitiveWordScanner {
+
+    private volatile Automaton automaton;
+
+    public SensitiveWordScanner(Collection<String> words) {
+        reload(words);
+    }
+
+    /**
+     * 重新加载词表，构建完成后原子替换，不影响正在进行的扫描
+     *
+     * @param words 敏感词列表
+     */
+    public void reload(Collection<String> words) {
+        this.automaton = new Automaton(words);
+    }
+
+    /**
+     * 是否包含任意敏感词
+     */
+    public boolean containsAny(String text) {
+        return findFirst(text) != null;
+    }
+
+    /**
+     * 查找第一个出现的敏感词
+     *
+     * @param text 待扫描文本
+     * @return 命中的敏感词（小写），未命中返回 null
+     */
+    public String findFirst(String text) {
+        if (text == null || text.isEmpty()) {
+            return null;
+        }
+        return automaton.findFirst(text, (word, end) -> true);
+    }
+
+    /**
+     * 查找第一个满足条件的敏感词，用于只在特定上下文中才算命中的词（例如后面紧跟赋值的凭证字段名）
+     *
+     * @param text   待扫描文本
+     * @param filter 命中过滤条件，参数为命中的敏感词（小写）和它在文本中的结束位置（不含）
+     * @return 满足条件的敏感词（小写），未命中返回 null
+     */
+    public String findFirst(String text, BiPredicate<String, Integer> filter) {
+        if (text == null || text.isEmpty()) {
+            return null;
+        }
+        return automaton.findFirst(text, filter);
+    }
+
+    /**
+     * 最长敏感词长度
+     */
+    public int getMaxWordLength() {
+        return automaton.maxWordLength;
+    }
+
+    /**
+     * 不可变的自动机，reload 时整体替换
+     */
+    private static final class Automaton {
+
+        private final Node root = new Node();
+
+        private int maxWordLength;
+
+        Automaton(Collection<String> words) {
+            for (String word : words) {
+                if (StrUtil.isNotBlank(word)) {
+                    insert(word.toLowerCase());
+                }
+            }
+            buildFailLinks();
+        }
+
+        private void insert(String word) {
+            Node node = root;
+            for (int i = 0; i < word.length(); i++) {
+                node = node.children.computeIfAbsent(word.charAt(i), key -> new Node());
+            }
+            node.output = word;
+            maxWordLength = Math.max(maxWordLength, word.length());
+        }
+
+        /**
+         * 广度优先构建失败指针，并把后缀节点的命中结果向下传递
+         */
+        private void buildFailLinks() {
+            Queue<Node> queue = new ArrayDeque<>();
+            for (Node child : root.children.values()) {
+                child.fail = root;
+                queue.add(child);
+            }
+            while (!queue.isEmpty()) {
+                Node node = queue.poll();
+                for (Map.Entry<Character, Node> entry : node.children.entrySet()) {
+                    char c = entry.getKey();
+                    Node child = entry.getValue();
+                    Node fail = node.fail;
+                    while (fail != null && !fail.children.containsKey(c)) {
+                        fail = fail.fail;
+                    }
+                    child.fail = fail == null ? root : fail.children.get(c);
+                    if (child.output == null) {
+                        child.output = child.fail.output;
+                    }
+                    queue.add(child);
+                }
+            }
+        }
+
+        String findFirst(String text, BiPredicate<String, Integer> filter) {
+            Node node = root;
+            for (int i = 0; i < text.length(); i++) {
+                char c = Character.toLowerCase(text.charAt(i));
+                while (node != root && !node.children.containsKey(c)) {
+                    node = node.fail;
+                }
+                node = node.children.getOrDefault(c, root);
+                if (node.output != null && filter.test(node.output, i + 1)) {
+                    return node.output;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class Node {
+
+        private final Map<Character, Node> children = new HashMap<>();
+
+        private Node fail;
+
+        /**
+         * 以该节点结尾的敏感词（含后缀命中）
+         */
+        private String output;
+    }
+}
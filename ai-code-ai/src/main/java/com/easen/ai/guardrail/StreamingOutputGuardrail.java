@@ -0,0 +1,37 @@
+package com.easen.ai.guardrail;
+
+import dev.langchain4j.guardrail.OutputGuardrail;
+import dev.langchain4j.guardrail.OutputGuardrailResult;
+
+/**
+ * 支持增量校验的输出护轨
+ * 流式响应时按滑动窗口（或已闭合的代码块）逐段校验并放行，无需等待完整响应；
+ * 完整响应结束后仍会执行 {@link #validate(dev.langchain4j.data.message.AiMessage)} 做最终校验。
+ * <p>
+ * 通过 {@code StreamingGuardrails.builder(aiServiceClass, guardrails...)} 创建 AI 服务后生效
+ */
+public interface StreamingOutputGuardrail extends OutputGuardrail {
+
+    /**
+     * 校验一个窗口的内容
+     *
+     * @param window 待放行的内容，开头包含上一次已放行内容的末尾 {@link #holdBack()} 个字符
+     * @return 校验结果，失败时停止放行，等待完整响应的最终校验
+     */
+    OutputGuardrailResult validatePartial(String window);
+
+    /**
+     * 累积多少字符后触发一次窗口校验
+     */
+    default int windowSize() {
+        return 200;
+    }
+
+    /**
+     * 每次放行时保留在窗口末尾、暂不放行的字符数
+     * 应不小于需要识别的最长词长度减一，避免跨窗口的词被提前放行
+     */
+    default int holdBack() {
+        return 0;
+    }
+}
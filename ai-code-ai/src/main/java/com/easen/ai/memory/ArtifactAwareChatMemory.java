@@ -0,0 +1,84 @@
+package com.easen.ai.memory;
+
+import com.easen.ai.artifact.CodeArtifactStore;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.memory.ChatMemory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 支持代码产物引用的对话记忆
+ * 记忆中的历史消息只保留代码引用；构建请求时仅把最新一条用户消息中的引用展开为完整代码，
+ * 模型可以看到当前代码，而历史轮次不再重复发送。
+ * 当前代码上下文在构建请求时才附加到最新用户消息之后，不经过输入护轨，也不写入记忆
+ */
+public class ArtifactAwareChatMemory implements ChatMemory {
+
+    private final ChatMemory delegate;
+
+    private final CodeArtifactStore codeArtifactStore;
+
+    /**
+     * 当前代码上下文（完整代码，原样附加，不再展开），没有时返回空字符串
+     */
+    private final Supplier<String> currentCodeContext;
+
+    public ArtifactAwareChatMemory(ChatMemory delegate, CodeArtifactStore codeArtifactStore) {
+        this(delegate, codeArtifactStore, () -> "");
+    }
+
+    public ArtifactAwareChatMemory(ChatMemory delegate, CodeArtifactStore codeArtifactStore,
+                                   Supplier<String> currentCodeContext) {
+        this.delegate = delegate;
+        this.codeArtifactStore = codeArtifactStore;
+        this.currentCodeContext = currentCodeContext;
+    }
+
+    @Override
+    public Object id() {
+        return delegate.id();
+    }
+
+    @Override
+    public void add(ChatMessage message) {
+        delegate.add(message);
+    }
+
+    @Override
+    public List<ChatMessage> messages() {
+        List<ChatMessage> messages = delegate.messages();
+        if (messages.isEmpty()) {
+            return messages;
+        }
+        if (!(messages.getLast() instanceof UserMessage userMessage) || !userMessage.hasSingleText()) {
+            return messages;
+        }
+        String userText = userMessage.singleText();
+        String text = codeArtifactStore.containsReference(userText) ? codeArtifactStore.expand(userText) : userText;
+        String currentCode = currentCodeContext.get();
+        if (!currentCode.isEmpty()) {
+            text = text + currentCode;
+        }
+        if (text.equals(userText)) {
+            return messages;
+        }
+        return replaceLast(messages, userMessage, text);
+    }
+
+    private static List<ChatMessage> replaceLast(List<ChatMessage> messages, UserMessage userMessage, String text) {
+        int lastIndex = messages.size() - 1;
+        List<ChatMessage> expanded = new ArrayList<>(messages);
+        expanded.set(lastIndex, userMessage.name() == null
+                ? UserMessage.from(text)
+                : UserMessage.from(userMessage.name(), text));
+        return expanded;
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+}
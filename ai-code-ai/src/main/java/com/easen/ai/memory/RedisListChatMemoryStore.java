@@ -0,0 +1,396 @@
+package com.easen.ai.memory;
+
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.StrUtil;
+import com.easen.ai.artifact.CodeArtifactStore;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.ChatMessageDeserializer;
+import dev.langchain4j.data.message.ChatMessageSerializer;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.store.memory.chat.ChatMemoryStore;
+import lombok.extern.slf4j.Slf4j;
+import redis.clients.jedis.JedisPooled;
+import redis.clients.jedis.JedisPubSub;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基于 Redis List 的对话记忆存储（两级缓存）
+ * 每条消息是列表中的一个元素，更新时只在服务端裁剪被淘汰的旧消息并追加新消息，不再整体重写；
+ * 窗口记忆始终把系统消息保留在第一条、从第二条开始淘汰，因此裁剪时可以固定头部的系统消息；
+ * 本地 Caffeine 缓存消息窗口及其版本号，同一节点内的重复读取直接走堆内存，缓存按消息的总字节数限制。
+ * 每次写入都会递增版本号并通过 pub/sub 广播，其他节点收到后失效本地副本；
+ * 本地副本同时设置较短的过期时间，作为广播丢失时的兜底。
+ * 写入前消息中较大的代码块会被替换为代码产物引用，记忆中不再保存完整代码
+ */
+@Slf4j
+public class RedisListChatMemoryStore implements ChatMemoryStore {
+
+    private static final String KEY_PREFIX = "chat_memory:list:";
+
+    private static final String VERSION_KEY_PREFIX = "chat_memory:version:";
+
+    private static final String INVALIDATION_CHANNEL = "chat_memory:invalidate";
+
+    /**
+     * 读取：原子地返回版本号和完整列表
+     * KEYS[1] 列表键；KEYS[2] 版本键
+     */
+    private static final String READ_SCRIPT = """
+            return {redis.call('GET', KEYS[2]) or '0', redis.call('LRANGE', KEYS[1], 0, -1)}
+            """;
+
+    /**
+     * 增量更新：版本号与预期一致时保留头部固定的消息，裁剪其后被淘汰的消息并追加新消息，否则返回 -1
+     * KEYS[1] 列表键；KEYS[2] 版本键
+     * ARGV[1] 预期版本；ARGV[2] 头部固定数量；ARGV[3] 裁剪数量；ARGV[4] 过期秒数；ARGV[5] 广播频道；ARGV[6] 节点 id；
+     * ARGV[7..] 追加的消息
+     */
+    private static final String APPEND_SCRIPT = """
+            if (redis.call('GET', KEYS[2]) or '0') ~= ARGV[1] then
+                return -1
+            end
+            local pinned = tonumber(ARGV[2])
+            local trim = tonumber(ARGV[3])
+            if trim > 0 then
+                local head = {}
+                if pinned > 0 then
+                    head = redis.call('LRANGE', KEYS[1], 0, pinned - 1)
+                end
+                redis.call('LTRIM', KEYS[1], pinned + trim, -1)
+                for i = #head, 1, -1 do
+                    redis.call('LPUSH', KEYS[1], head[i])
+                end
+            end
+            for i = 7, #ARGV do
+                redis.call('RPUSH', KEYS[1], ARGV[i])
+            end
+            local version = redis.call('INCR', KEYS[2])
+            local ttl = tonumber(ARGV[4])
+            if ttl > 0 then
+                redis.call('EXPIRE', KEYS[2], ttl)
+                if redis.call('EXISTS', KEYS[1]) == 1 then
+                    redis.call('EXPIRE', KEYS[1], ttl)
+                end
+            end
+            redis.call('PUBLISH', ARGV[5], ARGV[6] .. '|' .. KEYS[1] .. '|' .. version)
+            return version
+            """;
+
+    /**
+     * 整体重写：用于增量更新冲突、窗口无法衔接或删除时
+     * KEYS[1] 列表键；KEYS[2] 版本键
+     * ARGV[1] 过期秒数；ARGV[2] 广播频道；ARGV[3] 节点 id；ARGV[4..] 全部消息
+     */
+    private static final String REWRITE_SCRIPT = """
+            redis.call('DEL', KEYS[1])
+            for i = 4, #ARGV do
+                redis.call('RPUSH', KEYS[1], ARGV[i])
+            end
+            local version = redis.call('INCR', KEYS[2])
+            local ttl = tonumber(ARGV[1])
+            if ttl > 0 then
+                redis.call('EXPIRE', KEYS[2], ttl)
+                if redis.call('EXISTS', KEYS[1]) == 1 then
+                    redis.call('EXPIRE', KEYS[1], ttl)
+                end
+            end
+            redis.call('PUBLISH', ARGV[2], ARGV[3] .. '|' .. KEYS[1] .. '|' .. version)
+            return version
+            """;
+
+    private final JedisPooled jedis;
+
+    private final long ttlSeconds;
+
+    private final CodeArtifactStore codeArtifactStore;
+
+    /**
+     * 当前节点 id，用于忽略自己发出的失效广播
+     */
+    private final String nodeId = IdUtil.fastSimpleUUID();
+
+    /**
+     * 本地消息窗口（Redis 中列表的副本及其版本号），按估算的总字节数淘汰
+     */
+    private final Cache<String, CachedWindow> windowCache;
+
+    /**
+     * JSON -> 已解码消息，消息对象不可变，可以在多次读取之间复用
+     */
+    private final Cache<String, ChatMessage> decodedMessageCache = Caffeine.newBuilder()
+            .maximumWeight(32 * 1024 * 1024)
+            .<String, ChatMessage>weigher((json, message) -> json.length())
+            .build();
+
+    /**
+     * 消息对象 -> JSON，按对象身份缓存，避免每轮重复序列化窗口内未变化的消息
+     */
+    private final Cache<ChatMessage, String> encodedMessageCache = Caffeine.newBuilder()
+            .weakKeys()
+            .build();
+
+    private final InvalidationListener invalidationListener = new InvalidationListener();
+
+    private volatile boolean running;
+
+    private Thread subscriberThread;
+
+    public RedisListChatMemoryStore(JedisPooled jedis, long ttlSeconds, Duration localTtl, long localMaxBytes,
+                                    CodeArtifactStore codeArtifactStore) {
+        this.jedis = jedis;
+        this.ttlSeconds = ttlSeconds;
+        this.codeArtifactStore = codeArtifactStore;
+        this.windowCache = Caffeine.newBuilder()
+                .maximumWeight(localMaxBytes)
+                .<String, CachedWindow>weigher((key, window) -> window.weight())
+                .expireAfterWrite(localTtl)
+                .build();
+    }
+
+    /**
+     * 启动失效广播订阅（虚拟线程，断线后自动重连）
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        subscriberThread = Thread.ofVirtual().name("chat-memory-invalidation").start(() -> {
+            while (running) {
+                try {
+                    jedis.subscribe(invalidationListener, INVALIDATION_CHANNEL);
+                } catch (Exception e) {
+                    if (running) {
+                        log.warn("对话记忆失效订阅断开，稍后重连: {}", e.getMessage());
+                    }
+                }
+                // 订阅中断期间可能错过广播，清空本地副本
+                windowCache.invalidateAll();
+                if (running) {
+                    sleepQuietly(Duration.ofSeconds(1));
+                }
+            }
+        });
+    }
+
+    /**
+     * 停止失效广播订阅
+     */
+    public synchronized void close() {
+        running = false;
+        if (invalidationListener.isSubscribed()) {
+            invalidationListener.unsubscribe();
+        }
+        if (subscriberThread != null) {
+            subscriberThread.interrupt();
+        }
+    }
+
+    @Override
+    public List<ChatMessage> getMessages(Object memoryId) {
+        CachedWindow window = windowCache.get(buildKey(memoryId), this::loadWindow);
+        List<ChatMessage> messages = new ArrayList<>(window.messages().size());
+        for (String json : window.messages()) {
+            messages.add(decode(json));
+        }
+        return messages;
+    }
+
+    @Override
+    public void updateMessages(Object memoryId, List<ChatMessage> messages) {
+        String key = buildKey(memoryId);
+        List<String> newMessages = new ArrayList<>(messages.size());
+        for (ChatMessage message : messages) {
+            newMessages.add(encode(message));
+        }
+        CachedWindow oldWindow = windowCache.get(key, this::loadWindow);
+        Splice splice = findSplice(oldWindow.messages(), newMessages);
+        long version = -1;
+        if (!newMessages.isEmpty() && splice != null) {
+            List<String> args = new ArrayList<>();
+            args.add(String.valueOf(oldWindow.version()));
+            args.add(String.valueOf(splice.pinned()));
+            args.add(String.valueOf(splice.trim()));
+            args.add(String.valueOf(ttlSeconds));
+            args.add(INVALIDATION_CHANNEL);
+            args.add(nodeId);
+            // 只传输新增的消息
+            args.addAll(newMessages.subList(oldWindow.messages().size() - splice.trim(), newMessages.size()));
+            version = (Long) jedis.eval(APPEND_SCRIPT, List.of(key, buildVersionKey(key)), args);
+        }
+        if (version < 0) {
+            // 窗口无法衔接（例如系统消息被替换）或其他节点已修改，整体重写
+            log.debug("对话记忆增量更新失败，整体重写: memoryId={}", memoryId);
+            version = rewrite(key, newMessages);
+        }
+        windowCache.put(key, new CachedWindow(version, List.copyOf(newMessages)));
+    }
+
+    @Override
+    public void deleteMessages(Object memoryId) {
+        String key = buildKey(memoryId);
+        long version = rewrite(key, List.of());
+        windowCache.put(key, new CachedWindow(version, List.of()));
+    }
+
+    private long rewrite(String key, List<String> messages) {
+        List<String> args = new ArrayList<>(messages.size() + 3);
+        args.add(String.valueOf(ttlSeconds));
+        args.add(INVALIDATION_CHANNEL);
+        args.add(nodeId);
+        args.addAll(messages);
+        return (Long) jedis.eval(REWRITE_SCRIPT, List.of(key, buildVersionKey(key)), args);
+    }
+
+    @SuppressWarnings("unchecked")
+    private CachedWindow loadWindow(String key) {
+        List<Object> result = (List<Object>) jedis.eval(READ_SCRIPT, List.of(key, buildVersionKey(key)), List.of());
+        long version = Long.parseLong(String.valueOf(result.get(0)));
+        List<String> messages = ((List<Object>) result.get(1)).stream()
+                .map(String::valueOf)
+                .toList();
+        return new CachedWindow(version, messages);
+    }
+
+    /**
+     * 计算如何把旧窗口变成新窗口：先尝试直接裁剪头部，再尝试固定第一条（系统消息）后裁剪其后的消息，
+     * 要求裁剪后的旧窗口是新窗口的前缀
+     *
+     * @return 裁剪方式，无法衔接时返回 null
+     */
+    private static Splice findSplice(List<String> oldWindow, List<String> newWindow) {
+        if (oldWindow.isEmpty()) {
+            return new Splice(0, 0);
+        }
+        for (int pinned = 0; pinned <= 1; pinned++) {
+            if (pinned > 0 && (newWindow.isEmpty() || !oldWindow.get(0).equals(newWindow.get(0)))) {
+                break;
+            }
+            for (int trim = 0; pinned + trim < oldWindow.size(); trim++) {
+                int kept = oldWindow.size() - trim;
+                if (kept > newWindow.size()) {
+                    continue;
+                }
+                if (matches(oldWindow, newWindow, pinned, trim)) {
+                    return new Splice(pinned, trim);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 旧窗口保留前 pinned 条、跳过其后 trim 条后，是否与新窗口的开头一致
+     */
+    private static boolean matches(List<String> oldWindow, List<String> newWindow, int pinned, int trim) {
+        int kept = oldWindow.size() - trim;
+        for (int i = 0; i < kept; i++) {
+            int oldIndex = i < pinned ? i : i + trim;
+            if (!oldWindow.get(oldIndex).equals(newWindow.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private ChatMessage decode(String json) {
+        ChatMessage message = decodedMessageCache.get(json, ChatMessageDeserializer::messageFromJson);
+        encodedMessageCache.put(message, json);
+        return message;
+    }
+
+    private String encode(ChatMessage message) {
+        return encodedMessageCache.get(message, key -> ChatMessageSerializer.messageToJson(compact(key)));
+    }
+
+    /**
+     * 将消息文本中较大的代码块替换为代码产物引用（工具调用消息保持原样）
+     */
+    private ChatMessage compact(ChatMessage message) {
+        if (message instanceof AiMessage aiMessage && !aiMessage.hasToolExecutionRequests() && aiMessage.text() != null) {
+            String compacted = codeArtifactStore.compact(aiMessage.text());
+            return compacted.equals(aiMessage.text()) ? message : AiMessage.from(compacted);
+        }
+        if (message instanceof UserMessage userMessage && userMessage.hasSingleText()) {
+            String compacted = codeArtifactStore.compact(userMessage.singleText());
+            if (compacted.equals(userMessage.singleText())) {
+                return message;
+            }
+            return userMessage.name() == null
+                    ? UserMessage.from(compacted)
+                    : UserMessage.from(userMessage.name(), compacted);
+        }
+        return message;
+    }
+
+    private static String buildKey(Object memoryId) {
+        return KEY_PREFIX + memoryId;
+    }
+
+    private static String buildVersionKey(String key) {
+        return VERSION_KEY_PREFIX + StrUtil.removePrefix(key, KEY_PREFIX);
+    }
+
+    private static void sleepQuietly(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 本地缓存的消息窗口
+     *
+     * @param version  对应的 Redis 版本号
+     * @param messages 消息 JSON 列表
+     */
+    private record CachedWindow(long version, List<String> messages) {
+
+        /**
+         * 估算占用字节数：每条消息按 UTF-16 字符串计算，另加列表和对象本身的开销
+         */
+        int weight() {
+            long bytes = 64L + 16L * messages.size();
+            for (String json : messages) {
+                bytes += 40L + 2L * json.length();
+            }
+            return (int) Math.min(bytes, Integer.MAX_VALUE);
+        }
+    }
+
+    /**
+     * 旧窗口到新窗口的裁剪方式
+     *
+     * @param pinned 头部固定保留的消息数
+     * @param trim   固定消息之后裁剪的消息数
+     */
+    private record Splice(int pinned, int trim) {
+    }
+
+    /**
+     * 失效广播监听：消息格式为 节点id|列表键|版本号
+     */
+    private class InvalidationListener extends JedisPubSub {
+
+        @Override
+        public void onMessage(String channel, String message) {
+            List<String> parts = StrUtil.split(message, '|');
+            if (parts.size() != 3 || nodeId.equals(parts.get(0))) {
+                return;
+            }
+            String key = parts.get(1);
+            long version = Long.parseLong(parts.get(2));
+            CachedWindow cached = windowCache.getIfPresent(key);
+            if (cached != null && cached.version() < version) {
+                windowCache.invalidate(key);
+            }
+        }
+    }
+}
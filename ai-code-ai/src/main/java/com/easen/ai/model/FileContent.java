@@ -0,0 +1,15 @@
+package com.easen.ai.model;
+
+import dev.langchain4j.model.output.structured.Description;
+import lombok.Data;
+
+@Description("待写入的文件")
+@Data
+public class FileContent {
+
+    @Description("文件的相对路径")
+    private String relativeFilePath;
+
+    @Description("要写入文件的完整内容")
+    private String content;
+}
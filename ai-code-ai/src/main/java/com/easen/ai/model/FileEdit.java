@@ -0,0 +1,18 @@
+package com.easen.ai.model;
+
+import dev.langchain4j.model.output.structured.Description;
+import lombok.Data;
+
+@Description("单处文件修改")
+@Data
+public class FileEdit {
+
+    @Description("文件的相对路径")
+    private String relativeFilePath;
+
+    @Description("要替换的旧内容")
+    private String oldContent;
+
+    @Description("替换后的新内容")
+    private String newContent;
+}
@@ -0,0 +1,17 @@
+package com.easen.ai.model.message;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * AI 响应重置消息
+ * 本轮已推送的 AI 响应未通过输出护轨，需要丢弃，随后推送重新生成的响应
+ */
+@EqualsAndHashCode(callSuper = true)
+@Data
+public class AiResponseResetMessage extends StreamMessage {
+
+    public AiResponseResetMessage() {
+        super(StreamMessageTypeEnum.AI_RESPONSE_RESET.getValue());
+    }
+}
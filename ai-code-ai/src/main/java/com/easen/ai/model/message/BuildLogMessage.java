@@ -0,0 +1,21 @@
+package com.easen.ai.model.message;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * 构建日志消息
+ */
+@EqualsAndHashCode(callSuper = true)
+@Data
+@NoArgsConstructor
+public class BuildLogMessage extends StreamMessage {
+
+    private String data;
+
+    public BuildLogMessage(String data) {
+        super(StreamMessageTypeEnum.BUILD_LOG.getValue());
+        this.data = data;
+    }
+}
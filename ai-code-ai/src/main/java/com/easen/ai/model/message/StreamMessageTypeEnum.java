@@ -9,8 +9,10 @@ import lombok.Getter;
 public enum StreamMessageTypeEnum {
 
     AI_RESPONSE("ai_response", "AI响应"),
+    AI_RESPONSE_RESET("ai_response_reset", "AI响应重置"),
     TOOL_REQUEST("tool_request", "工具请求"),
-    TOOL_EXECUTED("tool_executed", "工具执行结果");
+    TOOL_EXECUTED("tool_executed", "工具执行结果"),
+    BUILD_LOG("build_log", "构建日志");
 
     private final String value;
     private final String text;
@@ -1,6 +1,12 @@
 package com.easen.ai.tools;
 
 import cn.hutool.json.JSONObject;
+import com.easen.ai.workspace.ProjectWorkspace;
+import com.easen.ai.workspace.ProjectWorkspaceManager;
+import jakarta.annotation.Resource;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 /**
  * 工具基类
@@ -8,6 +14,16 @@ import cn.hutool.json.JSONObject;
  */
 public abstract class BaseTool {
 
+    /**
+     * 当前线程上的工具调用是否失败
+     * 工具方法由执行器在调用线程上同步执行，工具返回失败结果时通过 {@link #fail(String)} 主动标记，
+     * 不依赖返回文本的内容判断（读取到的文件内容本身可能包含“失败”等字样）
+     */
+    private static final ThreadLocal<Boolean> CALL_FAILED = new ThreadLocal<>();
+
+    @Resource
+    private ProjectWorkspaceManager projectWorkspaceManager;
+
     /**
      * 获取工具的英文名称（对应方法名）
      *
@@ -38,4 +54,66 @@ public abstract class BaseTool {
      * @return 格式化的工具执行结果
      */
     public abstract String generateToolExecutedResult(JSONObject arguments);
-} 
\ No newline at end of file
+
+    /**
+     * 返回失败结果：错误信息原样返回给模型，同时标记本次调用失败
+     *
+     * @param message 错误信息
+     * @return 错误信息
+     */
+    protected static String fail(String message) {
+        CALL_FAILED.set(Boolean.TRUE);
+        return message;
+    }
+
+    /**
+     * 开始一次工具调用，清除上一次调用留下的失败标记
+     */
+    static void beginCall() {
+        CALL_FAILED.remove();
+    }
+
+    /**
+     * 结束一次工具调用
+     *
+     * @return 本次调用是否通过 {@link #fail(String)} 返回了失败结果
+     */
+    static boolean endCall() {
+        boolean failed = Boolean.TRUE.equals(CALL_FAILED.get());
+        CALL_FAILED.remove();
+        return failed;
+    }
+
+    /**
+     * 获取应用本次生成的工作区，文件读写都在工作区中进行，生成结束后统一落盘
+     *
+     * @param appId 应用 ID
+     * @return 工作区
+     */
+    protected ProjectWorkspace getWorkspace(Long appId) {
+        return projectWorkspaceManager.getWorkspace(appId);
+    }
+
+    /**
+     * 规范化相对路径：统一分隔符，去掉 . 和 ..，空路径表示项目根目录
+     *
+     * @param relativePath AI 传入的路径
+     * @return 规范化后的相对路径
+     * @throws IllegalArgumentException 绝对路径或跳出项目目录的路径
+     */
+    protected static String normalizeRelativePath(String relativePath) {
+        if (relativePath == null || relativePath.isBlank()) {
+            return "";
+        }
+        Path path = Paths.get(relativePath.trim().replace('\\', '/'));
+        if (path.isAbsolute()) {
+            throw new IllegalArgumentException("只允许使用项目内的相对路径 - " + relativePath);
+        }
+        Path normalized = path.normalize();
+        if (normalized.startsWith("..")) {
+            throw new IllegalArgumentException("路径不能跳出项目目录 - " + relativePath);
+        }
+        String result = normalized.toString().replace('\\', '/');
+        return result.startsWith("/") ? result.substring(1) : result;
+    }
+}
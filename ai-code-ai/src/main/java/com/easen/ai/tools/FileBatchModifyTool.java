@@ -0,0 +1,119 @@
+package com.easen.ai.tools;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONArray;
+import cn.hutool.json.JSONObject;
+import com.easen.ai.model.FileEdit;
+import com.easen.ai.workspace.ProjectWorkspace;
+import dev.langchain4j.agent.tool.P;
+import dev.langchain4j.agent.tool.Tool;
+import dev.langchain4j.agent.tool.ToolMemoryId;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 文件批量修改工具
+ * 一次工具调用完成多处修改（可跨多个文件）：先在内存中按顺序应用并校验所有修改，
+ * 全部通过后每个文件只写入一次；任何一处校验失败则所有文件都不修改
+ */
+@Slf4j
+@Component
+public class FileBatchModifyTool extends BaseTool {
+
+    @Tool("批量修改文件内容，按顺序应用多处替换（可跨多个文件），任一处找不到旧内容时全部不修改。需要修改多处时优先使用该工具")
+    public String modifyFiles(
+            @P("修改列表，按顺序应用，同一文件的后续修改基于前面修改后的内容")
+            List<FileEdit> edits,
+            @ToolMemoryId Long appId
+    ) {
+        if (CollUtil.isEmpty(edits)) {
+            return fail("错误：修改列表为空");
+        }
+        try {
+            ProjectWorkspace workspace = getWorkspace(appId);
+            // 相对路径 -> 修改后的内容，保持首次出现的顺序
+            Map<String, String> modifiedContents = new LinkedHashMap<>();
+            for (int i = 0; i < edits.size(); i++) {
+                FileEdit edit = edits.get(i);
+                String relativeFilePath = edit.getRelativeFilePath();
+                if (StrUtil.isEmpty(edit.getOldContent()) || edit.getNewContent() == null) {
+                    return fail(String.format("错误：第 %d 处修改缺少旧内容或新内容，所有文件均未修改 - %s", i + 1, relativeFilePath));
+                }
+                String path = normalizeRelativePath(relativeFilePath);
+                String currentContent = modifiedContents.get(path);
+                if (currentContent == null) {
+                    Optional<String> content = workspace.read(path);
+                    if (content.isEmpty()) {
+                        return fail(String.format("错误：第 %d 处修改的文件不存在或不是文件，所有文件均未修改 - %s", i + 1, relativeFilePath));
+                    }
+                    currentContent = content.get();
+                }
+                if (!currentContent.contains(edit.getOldContent())) {
+                    return fail(String.format("警告：第 %d 处修改在文件中未找到要替换的内容，所有文件均未修改 - %s", i + 1, relativeFilePath));
+                }
+                modifiedContents.put(path, currentContent.replace(edit.getOldContent(), edit.getNewContent()));
+            }
+            int changedFiles = 0;
+            for (Map.Entry<String, String> entry : modifiedContents.entrySet()) {
+                String path = entry.getKey();
+                if (!entry.getValue().equals(workspace.read(path).orElse(null))) {
+                    workspace.write(path, entry.getValue());
+                    changedFiles++;
+                }
+            }
+            log.info("成功批量修改文件: appId={}, 修改 {} 处, 涉及 {} 个文件, 内容变化 {} 个文件",
+                    appId, edits.size(), modifiedContents.size(), changedFiles);
+            return String.format("文件批量修改成功: 共 %d 处修改, 涉及文件 %s",
+                    edits.size(), String.join(", ", modifiedContents.keySet()));
+        } catch (Exception e) {
+            String errorMessage = "批量修改文件失败, 所有文件均未修改, 错误: " + e.getMessage();
+            log.error(errorMessage, e);
+            return fail(errorMessage);
+        }
+    }
+
+    @Override
+    public String getToolName() {
+        return "modifyFiles";
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "批量修改文件";
+    }
+
+    @Override
+    public String generateToolExecutedResult(JSONObject arguments) {
+        JSONArray edits = arguments.getJSONArray("edits");
+        StringBuilder result = new StringBuilder(String.format("[工具调用] %s", getDisplayName()));
+        if (edits == null) {
+            return result.toString();
+        }
+        // 逐处显示对比内容
+        for (int i = 0; i < edits.size(); i++) {
+            JSONObject edit = edits.getJSONObject(i);
+            result.append(String.format("""
+                    
+                    
+                    %d. %s
+                    
+                    替换前：
+                    ```
+                    %s
+                    ```
+                    
+                    替换后：
+                    ```
+                    %s
+                    ```
+                    """, i + 1, edit.getStr("relativeFilePath"), edit.getStr("oldContent"), edit.getStr("newContent")));
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,93 @@
+package com.easen.ai.tools;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.json.JSONArray;
+import cn.hutool.json.JSONObject;
+import com.easen.ai.model.FileContent;
+import com.easen.ai.workspace.ProjectWorkspace;
+import dev.langchain4j.agent.tool.P;
+import dev.langchain4j.agent.tool.Tool;
+import dev.langchain4j.agent.tool.ToolMemoryId;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 文件批量写入工具
+ * 一次工具调用写入多个文件，减少搭建项目时的模型往返次数；先校验所有路径，全部合法后才写入
+ */
+@Slf4j
+@Component
+public class FileBatchWriteTool extends BaseTool {
+
+    @Tool("批量写入多个文件，一次调用创建或覆盖多个文件。创建项目文件时优先使用该工具，每次尽量写入多个文件")
+    public String writeFiles(
+            @P("要写入的文件列表")
+            List<FileContent> files,
+            @ToolMemoryId Long appId
+    ) {
+        if (CollUtil.isEmpty(files)) {
+            return fail("错误：文件列表为空");
+        }
+        try {
+            // 相对路径 -> 文件内容，同一路径出现多次时以最后一次为准
+            Map<String, String> contents = new LinkedHashMap<>();
+            for (FileContent file : files) {
+                String path = normalizeRelativePath(file.getRelativeFilePath());
+                if (path.isEmpty()) {
+                    return fail("错误：文件路径不能为空，所有文件均未写入");
+                }
+                if (file.getContent() == null) {
+                    return fail("错误：文件内容不能为空，所有文件均未写入 - " + file.getRelativeFilePath());
+                }
+                contents.put(path, file.getContent());
+            }
+            // 写入工作区，生成结束后统一落盘
+            ProjectWorkspace workspace = getWorkspace(appId);
+            contents.forEach(workspace::write);
+            log.info("成功批量写入文件: appId={}, 文件数={}", appId, contents.size());
+            // 注意要返回相对路径，不能让 AI 把文件绝对路径返回给用户
+            return String.format("文件批量写入成功: 共 %d 个文件 - %s", contents.size(), String.join(", ", contents.keySet()));
+        } catch (Exception e) {
+            String errorMessage = "文件批量写入失败, 所有文件均未写入, 错误: " + e.getMessage();
+            log.error(errorMessage, e);
+            return fail(errorMessage);
+        }
+    }
+
+    @Override
+    public String getToolName() {
+        return "writeFiles";
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "批量写入文件";
+    }
+
+    @Override
+    public String generateToolExecutedResult(JSONObject arguments) {
+        JSONArray files = arguments.getJSONArray("files");
+        StringBuilder result = new StringBuilder(String.format("[工具调用] %s", getDisplayName()));
+        if (files == null) {
+            return result.toString();
+        }
+        for (int i = 0; i < files.size(); i++) {
+            JSONObject file = files.getJSONObject(i);
+            String relativeFilePath = file.getStr("relativeFilePath");
+            String suffix = FileUtil.getSuffix(relativeFilePath);
+            result.append(String.format("""
+                    
+                    %s
+                    ```%s
+                    %s
+                    ```
+                    """, relativeFilePath, suffix, file.getStr("content")));
+        }
+        return result.toString();
+    }
+}
@@ -1,18 +1,14 @@
 package com.easen.ai.tools;
 
+import cn.hutool.core.io.FileUtil;
 import cn.hutool.json.JSONObject;
-import com.easen.common.constant.AppConstant;
+import com.easen.ai.workspace.ProjectWorkspace;
 import dev.langchain4j.agent.tool.P;
 import dev.langchain4j.agent.tool.Tool;
 import dev.langchain4j.agent.tool.ToolMemoryId;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-
 /**
  * 文件删除工具
  * 支持 AI 通过工具调用的方式删除文件
@@ -28,30 +24,26 @@ public class FileDeleteTool extends BaseTool {
             @ToolMemoryId Long appId
     ) {
         try {
-            Path path = Paths.get(relativeFilePath);
-            if (!path.isAbsolute()) {
-                String projectDirName = "vue_project_" + appId;
-                Path projectRoot = Paths.get(AppConstant.CODE_OUTPUT_ROOT_DIR, projectDirName);
-                path = projectRoot.resolve(relativeFilePath);
-            }
-            if (!Files.exists(path)) {
-                return "警告：文件不存在，无需删除 - " + relativeFilePath;
-            }
-            if (!Files.isRegularFile(path)) {
-                return "错误：指定路径不是文件，无法删除 - " + relativeFilePath;
+            String path = normalizeRelativePath(relativeFilePath);
+            ProjectWorkspace workspace = getWorkspace(appId);
+            if (workspace.isFile(path)) {
+                // 安全检查：避免删除重要文件
+                String fileName = FileUtil.getName(path);
+                if (isImportantFile(fileName)) {
+                    return fail("错误：不允许删除重要文件 - " + fileName);
+                }
+                workspace.delete(path);
+                log.info("成功删除文件: appId={}, path={}", appId, path);
+                return "文件删除成功: " + relativeFilePath;
             }
-            // 安全检查：避免删除重要文件
-            String fileName = path.getFileName().toString();
-            if (isImportantFile(fileName)) {
-                return "错误：不允许删除重要文件 - " + fileName;
+            if (workspace.isDirectory(path)) {
+                return fail("错误：指定路径不是文件，无法删除 - " + relativeFilePath);
             }
-            Files.delete(path);
-            log.info("成功删除文件: {}", path.toAbsolutePath());
-            return "文件删除成功: " + relativeFilePath;
-        } catch (IOException e) {
+            return fail("警告：文件不存在，无需删除 - " + relativeFilePath);
+        } catch (Exception e) {
             String errorMessage = "删除文件失败: " + relativeFilePath + ", 错误: " + e.getMessage();
             log.error(errorMessage, e);
-            return errorMessage;
+            return fail(errorMessage);
         }
     }
 
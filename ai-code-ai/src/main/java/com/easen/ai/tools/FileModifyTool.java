@@ -1,18 +1,14 @@
 package com.easen.ai.tools;
 
 import cn.hutool.json.JSONObject;
-import com.easen.common.constant.AppConstant;
+import com.easen.ai.workspace.ProjectWorkspace;
 import dev.langchain4j.agent.tool.P;
 import dev.langchain4j.agent.tool.Tool;
 import dev.langchain4j.agent.tool.ToolMemoryId;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
+import java.util.Optional;
 
 /**
  * 文件修改工具
@@ -33,30 +29,27 @@ public class FileModifyTool extends BaseTool {
             @ToolMemoryId Long appId
     ) {
         try {
-            Path path = Paths.get(relativeFilePath);
-            if (!path.isAbsolute()) {
-                String projectDirName = "vue_project_" + appId;
-                Path projectRoot = Paths.get(AppConstant.CODE_OUTPUT_ROOT_DIR, projectDirName);
-                path = projectRoot.resolve(relativeFilePath);
+            String path = normalizeRelativePath(relativeFilePath);
+            ProjectWorkspace workspace = getWorkspace(appId);
+            Optional<String> content = workspace.read(path);
+            if (content.isEmpty()) {
+                return fail("错误：文件不存在或不是文件 - " + relativeFilePath);
             }
-            if (!Files.exists(path) || !Files.isRegularFile(path)) {
-                return "错误：文件不存在或不是文件 - " + relativeFilePath;
-            }
-            String originalContent = Files.readString(path);
+            String originalContent = content.get();
             if (!originalContent.contains(oldContent)) {
-                return "警告：文件中未找到要替换的内容，文件未修改 - " + relativeFilePath;
+                return fail("警告：文件中未找到要替换的内容，文件未修改 - " + relativeFilePath);
             }
             String modifiedContent = originalContent.replace(oldContent, newContent);
             if (originalContent.equals(modifiedContent)) {
                 return "信息：替换后文件内容未发生变化 - " + relativeFilePath;
             }
-            Files.writeString(path, modifiedContent, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
-            log.info("成功修改文件: {}", path.toAbsolutePath());
+            workspace.write(path, modifiedContent);
+            log.info("成功修改文件: appId={}, path={}", appId, path);
             return "文件修改成功: " + relativeFilePath;
-        } catch (IOException e) {
+        } catch (Exception e) {
             String errorMessage = "修改文件失败: " + relativeFilePath + ", 错误: " + e.getMessage();
             log.error(errorMessage, e);
-            return errorMessage;
+            return fail(errorMessage);
         }
     }
 
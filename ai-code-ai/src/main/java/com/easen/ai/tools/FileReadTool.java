@@ -1,7 +1,8 @@
 package com.easen.ai.tools;
 
+import cn.hutool.core.util.StrUtil;
 import cn.hutool.json.JSONObject;
-import com.easen.common.constant.AppConstant;
+import com.easen.ai.workspace.ProjectWorkspace;
 import dev.langchain4j.agent.tool.P;
 import dev.langchain4j.agent.tool.Tool;
 import dev.langchain4j.agent.tool.ToolMemoryId;
@@ -9,40 +10,156 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
 
 /**
  * 文件读取工具
- * 支持 AI 通过工具调用的方式读取文件内容
+ * 支持 AI 通过工具调用的方式读取文件内容，可按行范围读取，单次返回的内容有字节上限，避免大文件撑爆上下文
  */
 @Slf4j
 @Component
 public class FileReadTool extends BaseTool {
 
-    @Tool("读取指定路径的文件内容")
+    /**
+     * 默认单次最多返回的字节数
+     */
+    private static final int DEFAULT_MAX_BYTES = 32 * 1024;
+
+    /**
+     * 单次最多返回的字节数上限
+     */
+    private static final int MAX_BYTES_LIMIT = 128 * 1024;
+
+    /**
+     * 超过该大小且未被改动的文件直接内存映射读取，不整体读入堆内存
+     */
+    private static final long MMAP_THRESHOLD_BYTES = 256 * 1024;
+
+    @Tool("读取指定路径的文件内容，可指定行范围；内容过长时会被截断并提示总行数，可按行范围继续读取")
     public String readFile(
             @P("文件的相对路径")
             String relativeFilePath,
+            @P(value = "起始行号（从 1 开始，包含），为空则从第 1 行开始", required = false)
+            Integer startLine,
+            @P(value = "结束行号（包含），为空则读到文件末尾", required = false)
+            Integer endLine,
+            @P(value = "最多返回的字节数，为空则默认 32768", required = false)
+            Integer maxBytes,
             @ToolMemoryId Long appId
     ) {
         try {
-            Path path = Paths.get(relativeFilePath);
-            if (!path.isAbsolute()) {
-                String projectDirName = "vue_project_" + appId;
-                Path projectRoot = Paths.get(AppConstant.CODE_OUTPUT_ROOT_DIR, projectDirName);
-                path = projectRoot.resolve(relativeFilePath);
+            String path = normalizeRelativePath(relativeFilePath);
+            ProjectWorkspace workspace = getWorkspace(appId);
+            ByteBuffer buffer;
+            // 未改动的大文件直接映射磁盘文件，其余优先读取工作区中本次生成的改动
+            Optional<Path> diskFile = workspace.getUnchangedFile(path);
+            if (diskFile.isPresent() && Files.size(diskFile.get()) > MMAP_THRESHOLD_BYTES) {
+                buffer = map(diskFile.get());
+            } else {
+                Optional<String> content = workspace.read(path);
+                if (content.isEmpty()) {
+                    return fail("错误：文件不存在或不是文件 - " + relativeFilePath);
+                }
+                buffer = ByteBuffer.wrap(content.get().getBytes(StandardCharsets.UTF_8));
             }
-            if (!Files.exists(path) || !Files.isRegularFile(path)) {
-                return "错误：文件不存在或不是文件 - " + relativeFilePath;
-            }
-            return Files.readString(path);
-        } catch (IOException e) {
+            int limit = maxBytes == null || maxBytes <= 0 ? DEFAULT_MAX_BYTES : Math.min(maxBytes, MAX_BYTES_LIMIT);
+            return readRange(buffer, relativeFilePath, startLine, endLine, limit);
+        } catch (Exception e) {
             String errorMessage = "读取文件失败: " + relativeFilePath + ", 错误: " + e.getMessage();
             log.error(errorMessage, e);
-            return errorMessage;
+            return fail(errorMessage);
+        }
+    }
+
+    private ByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * 按行范围和字节上限截取内容
+     * 直接在 UTF-8 字节上按换行符定位（多字节字符中不会出现换行符字节），只解码需要返回的部分
+     */
+    private String readRange(ByteBuffer buffer, String relativeFilePath, Integer startLine, Integer endLine, int maxBytes) {
+        int size = buffer.limit();
+        int first = startLine == null || startLine < 1 ? 1 : startLine;
+        // 一次扫描得到总行数以及所选行范围的起止位置
+        int totalLines = 0;
+        int from = first == 1 ? 0 : -1;
+        int to = size;
+        for (int i = 0; i < size; i++) {
+            if (buffer.get(i) != '\n') {
+                continue;
+            }
+            totalLines++;
+            if (totalLines == first - 1) {
+                from = i + 1;
+            }
+            if (endLine != null && totalLines == endLine && to == size) {
+                to = i + 1;
+            }
+        }
+        if (size > 0 && buffer.get(size - 1) != '\n') {
+            totalLines++;
+        }
+        if (from < 0 || (from >= size && size > 0)) {
+            return fail(String.format("错误：起始行 %d 超出文件总行数 %d - %s", first, totalLines, relativeFilePath));
+        }
+        if (to < from) {
+            return fail(String.format("错误：结束行 %d 小于起始行 %d - %s", endLine, first, relativeFilePath));
+        }
+        boolean truncated = false;
+        boolean lineCut = false;
+        if (to - from > maxBytes) {
+            truncated = true;
+            int cut = from + maxBytes;
+            int lastNewline = -1;
+            for (int i = cut - 1; i >= from; i--) {
+                if (buffer.get(i) == '\n') {
+                    lastNewline = i;
+                    break;
+                }
+            }
+            if (lastNewline >= 0) {
+                to = lastNewline + 1;
+            } else {
+                // 单行就超过上限，退回到完整字符边界
+                lineCut = true;
+                while (cut > from && (buffer.get(cut) & 0xC0) == 0x80) {
+                    cut--;
+                }
+                to = cut;
+            }
+        }
+        byte[] bytes = new byte[to - from];
+        buffer.get(from, bytes);
+        String content = new String(bytes, StandardCharsets.UTF_8);
+        boolean partial = truncated || first > 1 || to < size;
+        if (!partial) {
+            return content;
+        }
+        StringBuilder result = new StringBuilder(content);
+        if (!content.endsWith("\n")) {
+            result.append('\n');
         }
+        if (lineCut) {
+            return result.append(String.format("[内容已截断：第 %d 行过长，仅显示前 %d 字节，文件共 %d 行、%d 字节]",
+                    first, bytes.length, totalLines, size)).toString();
+        }
+        int lastLine = first + StrUtil.count(content, '\n') - (content.endsWith("\n") ? 1 : 0);
+        result.append(String.format("[%s：显示第 %d-%d 行，文件共 %d 行、%d 字节", truncated ? "内容已截断" : "部分内容",
+                first, lastLine, totalLines, size));
+        if (lastLine < totalLines) {
+            result.append(String.format("，可从第 %d 行继续读取", lastLine + 1));
+        }
+        return result.append(']').toString();
     }
 
     @Override
@@ -58,6 +175,12 @@ public class FileReadTool extends BaseTool {
     @Override
     public String generateToolExecutedResult(JSONObject arguments) {
         String relativeFilePath = arguments.getStr("relativeFilePath");
-        return String.format("[工具调用] %s %s", getDisplayName(), relativeFilePath);
+        Integer startLine = arguments.getInt("startLine");
+        Integer endLine = arguments.getInt("endLine");
+        if (startLine == null && endLine == null) {
+            return String.format("[工具调用] %s %s", getDisplayName(), relativeFilePath);
+        }
+        return String.format("[工具调用] %s %s（第 %s-%s 行）", getDisplayName(), relativeFilePath,
+                startLine == null ? 1 : startLine, endLine == null ? "末尾" : endLine);
     }
-} 
\ No newline at end of file
+}
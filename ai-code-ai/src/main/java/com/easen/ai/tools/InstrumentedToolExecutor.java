@@ -0,0 +1,64 @@
+package com.easen.ai.tools;
+
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.service.tool.ToolExecutor;
+
+/**
+ * 带指标记录的工具执行器
+ * 包装实际的执行器，记录每次调用的耗时、参数和结果大小以及是否失败
+ */
+class InstrumentedToolExecutor implements ToolExecutor {
+
+    private final ToolExecutor delegate;
+
+    private final String toolName;
+
+    private final ToolMetrics toolMetrics;
+
+    InstrumentedToolExecutor(ToolExecutor delegate, String toolName, ToolMetrics toolMetrics) {
+        this.delegate = delegate;
+        this.toolName = toolName;
+        this.toolMetrics = toolMetrics;
+    }
+
+    @Override
+    public String execute(ToolExecutionRequest request, Object memoryId) {
+        Long appId = memoryId instanceof Long id ? id : null;
+        long argumentBytes = utf8Length(request.arguments());
+        long start = System.nanoTime();
+        String result = null;
+        BaseTool.beginCall();
+        try {
+            result = delegate.execute(request, memoryId);
+            return result;
+        } finally {
+            // 工具通过 BaseTool.fail 主动标记失败，抛出异常时 result 为空，同样记为失败
+            boolean error = BaseTool.endCall() || result == null;
+            toolMetrics.record(toolName, appId, System.nanoTime() - start, argumentBytes, utf8Length(result), error);
+        }
+    }
+
+    /**
+     * 计算 UTF-8 编码后的字节数，不复制字符串
+     */
+    private static long utf8Length(String text) {
+        if (text == null) {
+            return 0;
+        }
+        long length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
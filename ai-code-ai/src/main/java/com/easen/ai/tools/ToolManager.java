@@ -1,11 +1,20 @@
 package com.easen.ai.tools;
 
+import dev.langchain4j.agent.tool.Tool;
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.agent.tool.ToolSpecifications;
+import dev.langchain4j.service.tool.DefaultToolExecutor;
+import dev.langchain4j.service.tool.ToolExecutor;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.support.AopUtils;
 import org.springframework.stereotype.Component;
 
+import java.lang.reflect.Method;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -21,6 +30,14 @@ public class ToolManager {
      */
     private final Map<String, BaseTool> toolMap = new HashMap<>();
 
+    /**
+     * 工具规范到带指标记录的执行器的映射，注册到 AI 服务
+     */
+    private final Map<ToolSpecification, ToolExecutor> toolExecutors = new LinkedHashMap<>();
+
+    @Resource
+    private ToolMetrics toolMetrics;
+
     /**
      * 自动注入所有工具
      */
@@ -34,6 +51,13 @@ public class ToolManager {
     public void initTools() {
         for (BaseTool tool : tools) {
             toolMap.put(tool.getToolName(), tool);
+            for (Method method : AopUtils.getTargetClass(tool).getDeclaredMethods()) {
+                if (method.isAnnotationPresent(Tool.class)) {
+                    ToolSpecification specification = ToolSpecifications.toolSpecificationFrom(method);
+                    toolExecutors.put(specification, new InstrumentedToolExecutor(
+                            new DefaultToolExecutor(tool, method), specification.name(), toolMetrics));
+                }
+            }
             log.info("注册工具: {} -> {}", tool.getToolName(), tool.getDisplayName());
         }
         log.info("工具管理器初始化完成，共注册 {} 个工具", toolMap.size());
@@ -58,4 +82,13 @@ public class ToolManager {
     public BaseTool[] getAllTools() {
         return tools;
     }
+
+    /**
+     * 获取带指标记录的工具执行器，用于注册到 AI 服务
+     *
+     * @return 工具规范到执行器的映射
+     */
+    public Map<ToolSpecification, ToolExecutor> getToolExecutors() {
+        return Collections.unmodifiableMap(toolExecutors);
+    }
 }
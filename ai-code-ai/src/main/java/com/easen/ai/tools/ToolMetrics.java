@@ -0,0 +1,182 @@
+package com.easen.ai.tools;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 工具调用指标
+ * 按工具名和应用分桶记录调用次数、耗时分布、参数和结果大小、失败次数，
+ * 同时汇总到每次生成的观测（ai.generation）上，便于区分生成慢是模型还是工具导致的：
+ * 观测本身产生按结果区分的生成耗时指标，工具汇总作为高基数属性附加在观测上，接入链路追踪后即为 span 属性
+ */
+@Slf4j
+@Component
+public class ToolMetrics {
+
+    /**
+     * 应用 ID 分桶数，避免指标标签基数随应用数增长
+     */
+    private static final int APP_BUCKETS = 16;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    @Resource
+    private ObservationRegistry observationRegistry;
+
+    /**
+     * key: appId, value: 进行中的生成的工具调用追踪
+     */
+    private final Map<Long, GenerationTrace> traces = new ConcurrentHashMap<>();
+
+    /**
+     * 开始记录一次生成的工具调用
+     */
+    public void startTrace(Long appId) {
+        Observation observation = Observation.createNotStarted("ai.generation", observationRegistry)
+                .contextualName("ai-generation")
+                .highCardinalityKeyValue("appId", String.valueOf(appId))
+                .start();
+        GenerationTrace previous = traces.put(appId, new GenerationTrace(observation));
+        if (previous != null) {
+            previous.observation.stop();
+        }
+    }
+
+    /**
+     * 结束记录，把本次生成的工具调用汇总附加到生成观测上
+     *
+     * @param appId 应用 ID
+     * @param error 生成失败的原因，成功时为 null
+     */
+    public void finishTrace(Long appId, Throwable error) {
+        GenerationTrace trace = traces.remove(appId);
+        if (trace == null) {
+            return;
+        }
+        String summary = trace.summary();
+        Observation observation = trace.observation;
+        observation.lowCardinalityKeyValue("outcome", error == null ? "success" : "error")
+                .highCardinalityKeyValue("tool.calls", String.valueOf(trace.totalCount()))
+                .highCardinalityKeyValue("tool.errors", String.valueOf(trace.totalErrors()))
+                .highCardinalityKeyValue("tool.time.ms", String.valueOf(TimeUnit.NANOSECONDS.toMillis(trace.totalNanos())))
+                .highCardinalityKeyValue("tool.summary", summary);
+        if (error != null) {
+            observation.error(error);
+        }
+        observation.stop();
+        log.info("生成工具调用汇总: appId={}, {}", appId, summary);
+    }
+
+    /**
+     * 记录一次工具调用
+     *
+     * @param toolName      工具名称
+     * @param appId         应用 ID，可能为空
+     * @param durationNanos 耗时（纳秒）
+     * @param argumentBytes 参数大小
+     * @param resultBytes   结果大小
+     * @param error         是否失败
+     */
+    public void record(String toolName, Long appId, long durationNanos, long argumentBytes, long resultBytes, boolean error) {
+        String bucket = appId == null ? "none" : String.valueOf(Math.floorMod(appId, APP_BUCKETS));
+        Timer.builder("ai.tool.invocation")
+                .description("工具调用耗时")
+                .tags("tool", toolName, "appBucket", bucket, "outcome", error ? "error" : "success")
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("ai.tool.argument.bytes")
+                .baseUnit("bytes")
+                .tags("tool", toolName, "appBucket", bucket)
+                .register(meterRegistry)
+                .record(argumentBytes);
+        DistributionSummary.builder("ai.tool.result.bytes")
+                .baseUnit("bytes")
+                .tags("tool", toolName, "appBucket", bucket)
+                .register(meterRegistry)
+                .record(resultBytes);
+        if (appId != null) {
+            GenerationTrace trace = traces.get(appId);
+            if (trace != null) {
+                trace.record(toolName, durationNanos, argumentBytes, resultBytes, error);
+            }
+        }
+    }
+
+    /**
+     * 单次生成的工具调用追踪
+     */
+    private static final class GenerationTrace {
+
+        private final long startNanos = System.nanoTime();
+
+        private final Map<String, ToolStats> stats = new ConcurrentHashMap<>();
+
+        private final Observation observation;
+
+        GenerationTrace(Observation observation) {
+            this.observation = observation;
+        }
+
+        void record(String toolName, long durationNanos, long argumentBytes, long resultBytes, boolean error) {
+            ToolStats toolStats = stats.computeIfAbsent(toolName, key -> new ToolStats());
+            toolStats.count.increment();
+            toolStats.nanos.add(durationNanos);
+            toolStats.bytes.add(argumentBytes + resultBytes);
+            if (error) {
+                toolStats.errors.increment();
+            }
+        }
+
+        long totalCount() {
+            return stats.values().stream().mapToLong(toolStats -> toolStats.count.sum()).sum();
+        }
+
+        long totalErrors() {
+            return stats.values().stream().mapToLong(toolStats -> toolStats.errors.sum()).sum();
+        }
+
+        long totalNanos() {
+            return stats.values().stream().mapToLong(toolStats -> toolStats.nanos.sum()).sum();
+        }
+
+        String summary() {
+            long totalMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            long toolNanos = 0;
+            StringBuilder detail = new StringBuilder();
+            for (Map.Entry<String, ToolStats> entry : new TreeMap<>(stats).entrySet()) {
+                ToolStats toolStats = entry.getValue();
+                toolNanos += toolStats.nanos.sum();
+                detail.append(String.format(" %s[次数=%d, 耗时=%dms, 失败=%d, 字节=%d]", entry.getKey(),
+                        toolStats.count.sum(), TimeUnit.NANOSECONDS.toMillis(toolStats.nanos.sum()),
+                        toolStats.errors.sum(), toolStats.bytes.sum()));
+            }
+            return String.format("总耗时=%dms, 工具耗时=%dms,%s", totalMillis,
+                    TimeUnit.NANOSECONDS.toMillis(toolNanos), detail.isEmpty() ? " 无工具调用" : detail);
+        }
+    }
+
+    private static final class ToolStats {
+
+        private final LongAdder count = new LongAdder();
+
+        private final LongAdder nanos = new LongAdder();
+
+        private final LongAdder bytes = new LongAdder();
+
+        private final LongAdder errors = new LongAdder();
+    }
+}
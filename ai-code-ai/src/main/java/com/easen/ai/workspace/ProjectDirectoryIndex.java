@@ -0,0 +1,342 @@
+package com.easen.ai.workspace;
+
+import cn.hutool.core.util.StrUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * 项目目录索引
+ * 每个项目在内存中维护一份按（深度, 路径）排序的文件列表，首次访问时遍历一次磁盘建立，
+ * 之后由工作区提交增量更新，项目外部的改动（构建、部署、手动修改等）通过 WatchService 同步
+ */
+@Slf4j
+@Component
+public class ProjectDirectoryIndex {
+
+    /**
+     * 需要忽略的文件和目录
+     */
+    private static final Set<String> IGNORED_NAMES = Set.of(
+            "node_modules", ".git", "dist", "build", ".DS_Store",
+            ".env", "target", ".mvn", ".idea", ".vscode", "coverage"
+    );
+
+    /**
+     * 需要忽略的文件扩展名
+     */
+    private static final Set<String> IGNORED_EXTENSIONS = Set.of(
+            ".log", ".tmp", ".cache", ".lock"
+    );
+
+    /**
+     * 目录结构的展示顺序：先按深度，再按路径
+     */
+    public static final Comparator<String> PATH_ORDER =
+            Comparator.comparingInt(ProjectDirectoryIndex::getDepth).thenComparing(Comparator.naturalOrder());
+
+    /**
+     * key: appId，长时间未访问的索引自动淘汰并注销目录监听
+     */
+    private final Cache<Long, Index> indexes = Caffeine.newBuilder()
+            .expireAfterAccess(Duration.ofMinutes(30))
+            .removalListener((Long appId, Index index, RemovalCause cause) -> {
+                if (index != null) {
+                    index.close();
+                }
+            })
+            .build();
+
+    /**
+     * 监听键 -> 所属索引和目录
+     */
+    private final Map<WatchKey, WatchedDir> watchedDirs = new ConcurrentHashMap<>();
+
+    private WatchService watchService;
+
+    @PostConstruct
+    public void start() {
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            Thread.ofVirtual().name("project-dir-watcher").start(this::watchLoop);
+        } catch (IOException e) {
+            // 监听不可用时索引仍可由工具增量维护，只是感知不到外部改动
+            log.warn("项目目录监听启动失败，外部改动将不会同步到索引: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        indexes.invalidateAll();
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    /**
+     * 获取项目文件列表的快照
+     *
+     * @param appId       应用 ID
+     * @param projectRoot 项目根目录
+     * @return 按（深度, 路径）排序的相对路径，可自由修改
+     */
+    public NavigableSet<String> snapshot(Long appId, Path projectRoot) {
+        Index index = getIndex(appId, projectRoot);
+        return index == null ? new ConcurrentSkipListSet<>(PATH_ORDER) : new ConcurrentSkipListSet<>(index.files);
+    }
+
+    /**
+     * 工作区提交后同步索引
+     *
+     * @param appId   应用 ID
+     * @param written 写入的相对路径
+     * @param deleted 删除的相对路径
+     */
+    public void applyChanges(Long appId, Collection<String> written, Collection<String> deleted) {
+        Index index = indexes.getIfPresent(appId);
+        if (index == null) {
+            return;
+        }
+        for (String path : written) {
+            if (!isIgnoredPath(path)) {
+                index.files.add(path);
+            }
+        }
+        index.files.removeAll(deleted);
+    }
+
+    /**
+     * 丢弃项目的索引，下次访问时重建
+     */
+    public void invalidate(Long appId) {
+        indexes.invalidate(appId);
+    }
+
+    /**
+     * 判断文件或目录名是否应该忽略
+     */
+    public static boolean isIgnored(String fileName) {
+        if (IGNORED_NAMES.contains(fileName)) {
+            return true;
+        }
+        return IGNORED_EXTENSIONS.stream().anyMatch(fileName::endsWith);
+    }
+
+    /**
+     * 判断相对路径中是否有需要忽略的部分
+     */
+    public static boolean isIgnoredPath(String relativePath) {
+        for (String segment : relativePath.split("/")) {
+            if (isIgnored(segment)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 相对路径的深度
+     */
+    public static int getDepth(String relativePath) {
+        return StrUtil.count(relativePath, '/');
+    }
+
+    private Index getIndex(Long appId, Path projectRoot) {
+        Index index = indexes.getIfPresent(appId);
+        if (index != null && index.projectRoot.equals(projectRoot)) {
+            return index;
+        }
+        // 项目目录还不存在时不缓存，等首次提交创建目录后再建立索引和监听
+        if (!Files.isDirectory(projectRoot)) {
+            return null;
+        }
+        return indexes.asMap().compute(appId, (key, existing) ->
+                existing != null && existing.projectRoot.equals(projectRoot) ? existing : buildIndex(key, projectRoot));
+    }
+
+    private Index buildIndex(Long appId, Path projectRoot) {
+        long start = System.currentTimeMillis();
+        Index index = new Index(appId, projectRoot, toRealPath(projectRoot));
+        scan(index, index.realRoot);
+        log.info("项目目录索引已建立: appId={}, 文件数={}, 耗时={}ms",
+                appId, index.files.size(), System.currentTimeMillis() - start);
+        return index;
+    }
+
+    /**
+     * 遍历目录，把文件加入索引并注册子目录监听
+     */
+    private void scan(Index index, Path dir) {
+        try {
+            Files.walkFileTree(dir, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path path, BasicFileAttributes attrs) {
+                    if (!path.equals(index.realRoot) && isIgnored(path.getFileName().toString())) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    register(index, path);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (!isIgnored(file.getFileName().toString())) {
+                        index.files.add(index.toRelativePath(file));
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            throw new IllegalStateException("读取项目目录失败: " + e.getMessage(), e);
+        }
+    }
+
+    private static Path toRealPath(Path projectRoot) {
+        try {
+            return projectRoot.toRealPath();
+        } catch (IOException e) {
+            throw new IllegalStateException("读取项目目录失败: " + e.getMessage(), e);
+        }
+    }
+
+    private void register(Index index, Path dir) {
+        if (watchService == null) {
+            return;
+        }
+        try {
+            WatchKey key = dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+            watchedDirs.put(key, new WatchedDir(index, dir));
+            index.watchKeys.add(key);
+        } catch (IOException e) {
+            log.warn("注册目录监听失败: {}, 错误: {}", dir, e.getMessage());
+        }
+    }
+
+    private void watchLoop() {
+        while (true) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            WatchedDir watched = watchedDirs.get(key);
+            if (watched != null) {
+                try {
+                    handleEvents(watched, key);
+                } catch (Exception e) {
+                    log.warn("处理目录变更失败，丢弃索引: appId={}, 错误: {}", watched.index.appId, e.getMessage());
+                    indexes.asMap().remove(watched.index.appId, watched.index);
+                    watched.index.close();
+                }
+            }
+            if (!key.reset()) {
+                watchedDirs.remove(key);
+                // 项目根目录被删除（应用删除、重新生成等），整个索引作废
+                if (watched != null && watched.dir.equals(watched.index.projectRoot)) {
+                    indexes.asMap().remove(watched.index.appId, watched.index);
+                    watched.index.close();
+                }
+            }
+        }
+    }
+
+    private void handleEvents(WatchedDir watched, WatchKey key) {
+        Index index = watched.index;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // 事件丢失时无法确定增量，直接重建
+                indexes.asMap().remove(index.appId, index);
+                index.close();
+                return;
+            }
+            Path child = watched.dir.resolve((Path) event.context());
+            if (isIgnored(child.getFileName().toString())) {
+                continue;
+            }
+            String relativePath = index.toRelativePath(child);
+            if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+                // 可能是文件也可能是目录，一并移除其下的所有文件
+                String prefix = relativePath + "/";
+                index.files.remove(relativePath);
+                index.files.removeIf(path -> path.startsWith(prefix));
+            } else if (Files.isDirectory(child)) {
+                if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+                    scan(index, child);
+                }
+            } else if (Files.isRegularFile(child)) {
+                index.files.add(relativePath);
+            }
+        }
+    }
+
+    private void unregister(Index index) {
+        for (WatchKey key : index.watchKeys) {
+            key.cancel();
+            watchedDirs.remove(key);
+        }
+        index.watchKeys.clear();
+    }
+
+    private record WatchedDir(Index index, Path dir) {
+    }
+
+    /**
+     * 单个项目的索引
+     */
+    private final class Index {
+
+        private final Long appId;
+
+        private final Path projectRoot;
+
+        /**
+         * 实际遍历和监听的目录（项目目录可能是指向当前版本的符号链接）
+         */
+        private final Path realRoot;
+
+        private final NavigableSet<String> files = new ConcurrentSkipListSet<>(PATH_ORDER);
+
+        private final Set<WatchKey> watchKeys = ConcurrentHashMap.newKeySet();
+
+        private Index(Long appId, Path projectRoot, Path realRoot) {
+            this.appId = appId;
+            this.projectRoot = projectRoot;
+            this.realRoot = realRoot;
+        }
+
+        private String toRelativePath(Path file) {
+            return realRoot.relativize(file).toString().replace('\\', '/');
+        }
+
+        private void close() {
+            unregister(this);
+        }
+    }
+}
@@ -0,0 +1,374 @@
+package com.easen.ai.workspace;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.IdUtil;
+import com.easen.common.manager.BlobManager;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 单次生成的项目工作区（写时复制的内存覆盖层）
+ * 生成过程中工具的读写都落在内存中：读取时优先返回覆盖层内容，首次读取磁盘后缓存；
+ * 写入和删除只记录在覆盖层。生成成功后 {@link #commit()} 先把所有改动写入暂存目录，
+ * 全部成功后再逐个原子替换到项目目录，替换中途失败时撤销已完成的替换；
+ * 取消或失败时 {@link #rollback()} 丢弃改动，项目目录保持原样
+ */
+@Slf4j
+public class ProjectWorkspace {
+
+    /**
+     * 删除标记
+     */
+    private static final String DELETED = new String("<deleted>");
+
+    @Getter
+    private final Long appId;
+
+    @Getter
+    private final Path projectRoot;
+
+    /**
+     * 相对路径 -> 修改后的内容（或删除标记）
+     */
+    private final Map<String, String> changes = new ConcurrentHashMap<>();
+
+    /**
+     * 相对路径 -> 磁盘上的原始内容（读取缓存）
+     */
+    private final Map<String, Optional<String>> baseContents = new ConcurrentHashMap<>();
+
+    private final ProjectDirectoryIndex directoryIndex;
+
+    private final BlobManager blobManager;
+
+    /**
+     * 工作区中的文件列表（目录索引快照 + 覆盖层改动），首次列目录时建立，之后随写入和删除增量更新
+     */
+    private NavigableSet<String> files;
+
+    @Getter
+    private volatile boolean closed;
+
+    public ProjectWorkspace(Long appId, Path projectRoot, ProjectDirectoryIndex directoryIndex, BlobManager blobManager) {
+        this.appId = appId;
+        this.projectRoot = projectRoot;
+        this.directoryIndex = directoryIndex;
+        this.blobManager = blobManager;
+    }
+
+    /**
+     * 读取文件内容
+     *
+     * @param relativePath 规范化后的相对路径
+     * @return 文件内容，不存在时为空
+     */
+    public Optional<String> read(String relativePath) {
+        String changed = changes.get(relativePath);
+        if (changed != null) {
+            return changed == DELETED ? Optional.empty() : Optional.of(changed);
+        }
+        return baseContents.computeIfAbsent(relativePath, this::readFromDisk);
+    }
+
+    /**
+     * 获取未被本次生成改动的磁盘文件，大文件可以直接从磁盘按需读取，避免整个读入内存
+     *
+     * @param relativePath 规范化后的相对路径
+     * @return 磁盘文件路径，文件在覆盖层中有改动或不存在时为空
+     */
+    public Optional<Path> getUnchangedFile(String relativePath) {
+        if (changes.containsKey(relativePath)) {
+            return Optional.empty();
+        }
+        Path path = projectRoot.resolve(relativePath);
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    /**
+     * 是否为文件
+     */
+    public boolean isFile(String relativePath) {
+        return read(relativePath).isPresent();
+    }
+
+    /**
+     * 是否为目录（磁盘上存在该目录，或覆盖层中有位于其下的新文件）
+     */
+    public boolean isDirectory(String relativePath) {
+        String prefix = relativePath.isEmpty() ? "" : relativePath + "/";
+        if (Files.isDirectory(projectRoot.resolve(relativePath))) {
+            return true;
+        }
+        return changes.entrySet().stream()
+                .anyMatch(entry -> entry.getValue() != DELETED && entry.getKey().startsWith(prefix));
+    }
+
+    /**
+     * 写入文件
+     */
+    public synchronized void write(String relativePath, String content) {
+        ensureOpen();
+        changes.put(relativePath, content);
+        if (files != null && !ProjectDirectoryIndex.isIgnoredPath(relativePath)) {
+            files.add(relativePath);
+        }
+    }
+
+    /**
+     * 删除文件
+     */
+    public synchronized void delete(String relativePath) {
+        ensureOpen();
+        changes.put(relativePath, DELETED);
+        if (files != null) {
+            files.remove(relativePath);
+        }
+    }
+
+    /**
+     * 列出工作区中的所有文件（合并覆盖层，不含需要忽略的文件和目录）
+     *
+     * @return 按（深度, 路径）排序的相对路径，只读视图
+     */
+    public synchronized NavigableSet<String> listFiles() {
+        if (files == null) {
+            NavigableSet<String> snapshot = directoryIndex.snapshot(appId, projectRoot);
+            changes.forEach((path, content) -> {
+                if (content == DELETED) {
+                    snapshot.remove(path);
+                } else if (!ProjectDirectoryIndex.isIgnoredPath(path)) {
+                    snapshot.add(path);
+                }
+            });
+            files = snapshot;
+        }
+        return Collections.unmodifiableNavigableSet(files);
+    }
+
+    /**
+     * 是否有未提交的改动
+     */
+    public boolean hasChanges() {
+        return !changes.isEmpty();
+    }
+
+    /**
+     * 提交改动到磁盘
+     * 先把所有新内容写入同一文件系统上的暂存目录，任何一个失败都不会触碰项目目录；
+     * 全部写好后再逐个原子移动覆盖目标文件，最后删除被标记删除的文件。
+     * 被覆盖或删除的原文件先保留到备份目录，中途失败时逆序撤销已完成的替换，项目目录恢复原样
+     */
+    synchronized void commit() throws IOException {
+        ensureOpen();
+        closed = true;
+        if (changes.isEmpty()) {
+            return;
+        }
+        String suffix = projectRoot.getFileName() + "_" + IdUtil.fastSimpleUUID();
+        Path stagingDir = projectRoot.resolveSibling(".staging_" + suffix);
+        Path backupDir = projectRoot.resolveSibling(".backup_" + suffix);
+        List<String> written = new ArrayList<>();
+        List<String> deleted = new ArrayList<>();
+        // 已完成的替换和新建的目录，失败时逆序撤销
+        Deque<Replacement> applied = new ArrayDeque<>();
+        List<Path> createdDirs = new ArrayList<>();
+        boolean committed = false;
+        boolean restored = true;
+        try {
+            for (Map.Entry<String, String> entry : changes.entrySet()) {
+                if (entry.getValue() == DELETED) {
+                    deleted.add(entry.getKey());
+                } else {
+                    written.add(entry.getKey());
+                }
+            }
+            stage(stagingDir, written);
+            for (String relativePath : written) {
+                Path target = projectRoot.resolve(relativePath);
+                applied.push(new Replacement(relativePath, backup(target, backupDir.resolve(relativePath), false)));
+                createDirectories(target.getParent(), createdDirs);
+                Files.move(stagingDir.resolve(relativePath), target,
+                        StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }
+            for (String relativePath : deleted) {
+                Path target = projectRoot.resolve(relativePath);
+                applied.push(new Replacement(relativePath, backup(target, backupDir.resolve(relativePath), true)));
+            }
+            committed = true;
+            log.info("工作区提交完成: appId={}, 写入 {} 个文件, 删除 {} 个文件",
+                    appId, written.size(), deleted.size());
+        } finally {
+            if (committed) {
+                directoryIndex.applyChanges(appId, written, deleted);
+            } else if (!applied.isEmpty()) {
+                restored = undo(applied, createdDirs, backupDir);
+            }
+            FileUtil.del(stagingDir);
+            // 撤销失败时保留备份目录，便于人工恢复
+            if (restored) {
+                FileUtil.del(backupDir);
+            }
+            changes.clear();
+            baseContents.clear();
+        }
+    }
+
+    /**
+     * 把原文件保留到备份目录
+     * 覆盖写入时硬链接一份（不支持时复制），之后的原子覆盖期间目标文件始终可读；删除时直接移走
+     *
+     * @return 是否存在原文件
+     */
+    private static boolean backup(Path target, Path backup, boolean remove) throws IOException {
+        if (!Files.exists(target, LinkOption.NOFOLLOW_LINKS)) {
+            return false;
+        }
+        Files.createDirectories(backup.getParent());
+        if (remove) {
+            Files.move(target, backup, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        }
+        try {
+            Files.createLink(backup, target);
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            Files.copy(target, backup, StandardCopyOption.COPY_ATTRIBUTES);
+        }
+        return true;
+    }
+
+    /**
+     * 创建目录，记录新建的各级目录
+     */
+    private static void createDirectories(Path dir, List<Path> createdDirs) throws IOException {
+        Deque<Path> missing = new ArrayDeque<>();
+        for (Path current = dir; current != null && !Files.isDirectory(current); current = current.getParent()) {
+            missing.push(current);
+        }
+        for (Path current : missing) {
+            Files.createDirectory(current);
+            createdDirs.add(current);
+        }
+    }
+
+    /**
+     * 逆序撤销已完成的替换：有原文件的从备份目录移回，新增的文件删除，最后删除新建的空目录
+     *
+     * @return 是否全部撤销成功
+     */
+    private boolean undo(Deque<Replacement> applied, List<Path> createdDirs, Path backupDir) {
+        boolean restored = true;
+        for (Replacement replacement : applied) {
+            Path target = projectRoot.resolve(replacement.relativePath());
+            try {
+                if (replacement.hadOriginal()) {
+                    Files.move(backupDir.resolve(replacement.relativePath()), target,
+                            StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } else {
+                    Files.deleteIfExists(target);
+                }
+            } catch (IOException e) {
+                restored = false;
+                log.error("工作区撤销失败: appId={}, 文件={}", appId, replacement.relativePath(), e);
+            }
+        }
+        for (int i = createdDirs.size() - 1; i >= 0; i--) {
+            try {
+                Files.deleteIfExists(createdDirs.get(i));
+            } catch (IOException e) {
+                // 目录非空（例如期间有其他写入）时保留
+            }
+        }
+        if (restored) {
+            log.warn("工作区提交失败，已恢复项目目录: appId={}, 撤销 {} 处改动", appId, applied.size());
+        } else {
+            // 项目目录与索引可能不一致，下次访问时重建
+            directoryIndex.invalidate(appId);
+            log.error("工作区提交失败且未能完全恢复，原文件保留在: {}", backupDir);
+        }
+        return restored;
+    }
+
+    /**
+     * 丢弃所有改动
+     */
+    synchronized void rollback() {
+        closed = true;
+        if (!changes.isEmpty()) {
+            log.info("工作区回滚: appId={}, 丢弃 {} 处改动", appId, changes.size());
+        }
+        changes.clear();
+        baseContents.clear();
+    }
+
+    /**
+     * 并行把待写入的文件写入暂存目录，任何一个失败都整体失败
+     */
+    private void stage(Path stagingDir, List<String> relativePaths) throws IOException {
+        List<Future<?>> futures = new ArrayList<>(relativePaths.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String relativePath : relativePaths) {
+                String content = changes.get(relativePath);
+                futures.add(executor.submit(() -> blobManager.writeFile(stagingDir.resolve(relativePath), content)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException ioException) {
+                throw ioException.getCause();
+            }
+            throw new IOException("写入暂存文件失败: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("写入暂存文件被中断", e);
+        }
+    }
+
+    private Optional<String> readFromDisk(String relativePath) {
+        Path path = projectRoot.resolve(relativePath);
+        if (!Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Files.readString(path));
+        } catch (IOException e) {
+            throw new IllegalStateException("读取文件失败: " + relativePath + ", 错误: " + e.getMessage(), e);
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("工作区已提交或回滚: appId=" + appId);
+        }
+    }
+
+    /**
+     * 一次已完成的文件替换
+     *
+     * @param relativePath 相对路径
+     * @param hadOriginal  替换前是否存在原文件（已保留到备份目录）
+     */
+    private record Replacement(String relativePath, boolean hadOriginal) {
+    }
+}
@@ -0,0 +1,105 @@
+package com.easen.ai.workspace;
+
+import com.easen.common.constant.AppConstant;
+import com.easen.common.manager.BlobManager;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 项目工作区管理器
+ * 每个应用同时只有一个进行中的工作区：生成开始时 {@link #begin(Long)}，成功后 {@link #commit(ProjectWorkspace)}，
+ * 取消或失败时 {@link #rollback(Long)}
+ */
+@Slf4j
+@Component
+public class ProjectWorkspaceManager {
+
+    /**
+     * key: appId, value: 进行中的工作区
+     */
+    private final Map<Long, ProjectWorkspace> workspaces = new ConcurrentHashMap<>();
+
+    @Resource
+    private ProjectDirectoryIndex projectDirectoryIndex;
+
+    @Resource
+    private BlobManager blobManager;
+
+    /**
+     * 开始新的工作区，丢弃该应用之前未提交的工作区
+     *
+     * @param appId 应用 ID
+     * @return 工作区
+     */
+    public ProjectWorkspace begin(Long appId) {
+        ProjectWorkspace workspace = new ProjectWorkspace(appId, getProjectRoot(appId), projectDirectoryIndex, blobManager);
+        ProjectWorkspace previous = workspaces.put(appId, workspace);
+        if (previous != null) {
+            previous.rollback();
+        }
+        return workspace;
+    }
+
+    /**
+     * 获取应用当前的工作区，没有时自动开始一个
+     *
+     * @param appId 应用 ID
+     * @return 工作区
+     */
+    public ProjectWorkspace getWorkspace(Long appId) {
+        return workspaces.compute(appId, (key, workspace) ->
+                workspace == null || workspace.isClosed() ? new ProjectWorkspace(key, getProjectRoot(key), projectDirectoryIndex, blobManager) : workspace);
+    }
+
+    /**
+     * 提交工作区，仅当它仍是该应用当前的工作区时生效
+     *
+     * @param workspace 工作区
+     * @return 是否提交
+     */
+    public boolean commit(ProjectWorkspace workspace) throws IOException {
+        if (!workspaces.remove(workspace.getAppId(), workspace)) {
+            log.warn("工作区已被替换或回滚，跳过提交: appId={}", workspace.getAppId());
+            return false;
+        }
+        workspace.commit();
+        return true;
+    }
+
+    /**
+     * 回滚应用当前的工作区
+     *
+     * @param appId 应用 ID
+     */
+    public void rollback(Long appId) {
+        ProjectWorkspace workspace = workspaces.remove(appId);
+        if (workspace != null) {
+            workspace.rollback();
+        }
+    }
+
+    /**
+     * 回滚指定工作区，仅当它仍是该应用当前的工作区时生效
+     *
+     * @param workspace 工作区
+     */
+    public void rollback(ProjectWorkspace workspace) {
+        if (workspaces.remove(workspace.getAppId(), workspace)) {
+            workspace.rollback();
+        }
+    }
+
+    /**
+     * 获取应用的项目根目录
+     */
+    public static Path getProjectRoot(Long appId) {
+        return Paths.get(AppConstant.CODE_OUTPUT_ROOT_DIR, "vue_project_" + appId);
+    }
+}
@@ -43,6 +43,7 @@ class AiServiceStreamingResponseHandler implements StreamingChatResponseHandler
     private final Object methodKey;
 
     private final Consumer<String> partialResponseHandler;
+    private final Runnable partialResponseResetHandler;
     private final BiConsumer<Integer, ToolExecutionRequest> partialToolExecutionRequestHandler;
     private final BiConsumer<Integer, ToolExecutionRequest> completeToolExecutionRequestHandler;
     private final Consumer<ToolExecution> toolExecutionHandler;
@@ -57,12 +58,14 @@ class AiServiceStreamingResponseHandler implements StreamingChatResponseHandler
     private final Map<String, ToolExecutor> toolExecutors;
     private final List<String> responseBuffer = new ArrayList<>();
     private final boolean hasOutputGuardrails;
+    private final StreamingGuardrailWindow streamingGuardrailWindow;
 
     AiServiceStreamingResponseHandler(
             ChatExecutor chatExecutor,
             AiServiceContext context,
             Object memoryId,
             Consumer<String> partialResponseHandler,
+            Runnable partialResponseResetHandler,
             BiConsumer<Integer, ToolExecutionRequest> partialToolExecutionRequestHandler,
             BiConsumer<Integer, ToolExecutionRequest> completeToolExecutionRequestHandler,
             Consumer<ToolExecution> toolExecutionHandler,
@@ -80,6 +83,7 @@ class AiServiceStreamingResponseHandler implements StreamingChatResponseHandler
         this.methodKey = methodKey;
 
         this.partialResponseHandler = ensureNotNull(partialResponseHandler, "partialResponseHandler");
+        this.partialResponseResetHandler = partialResponseResetHandler;
         this.partialToolExecutionRequestHandler = partialToolExecutionRequestHandler;
         this.completeToolExecutionRequestHandler = completeToolExecutionRequestHandler;
         this.completeResponseHandler = completeResponseHandler;
@@ -93,12 +97,22 @@ class AiServiceStreamingResponseHandler implements StreamingChatResponseHandler
         this.toolSpecifications = copy(toolSpecifications);
         this.toolExecutors = copy(toolExecutors);
         this.hasOutputGuardrails = context.guardrailService().hasOutputGuardrails(methodKey);
+        // Output guardrails registered through StreamingGuardrails are validated window by window instead of
+        // buffering the whole response. Released windows can only be taken back through the reset handler, so
+        // without one the response is buffered as usual
+        var streamingGuardrails = StreamingGuardrails.of(context);
+        this.streamingGuardrailWindow = hasOutputGuardrails && !streamingGuardrails.isEmpty()
+                && partialResponseResetHandler != null
+                ? new StreamingGuardrailWindow(streamingGuardrails, partialResponseHandler, partialResponseResetHandler)
+                : null;
     }
 
     @Override
     public void onPartialResponse(String partialResponse) {
         // If we're using output guardrails, then buffer the partial response until the guardrails have completed
-        if (hasOutputGuardrails) {
+        if (streamingGuardrailWindow != null) {
+            streamingGuardrailWindow.append(partialResponse);
+        } else if (hasOutputGuardrails) {
             responseBuffer.add(partialResponse);
         } else {
             partialResponseHandler.accept(partialResponse);
@@ -117,6 +131,9 @@ class AiServiceStreamingResponseHandler implements StreamingChatResponseHandler
         addToMemory(aiMessage);
 
         if (aiMessage.hasToolExecutionRequests()) {
+            if (streamingGuardrailWindow != null) {
+                streamingGuardrailWindow.flush();
+            }
             for (ToolExecutionRequest toolExecutionRequest : aiMessage.toolExecutionRequests()) {
                 String toolName = toolExecutionRequest.name();
                 ToolExecutor toolExecutor = toolExecutors.get(toolName);
@@ -144,6 +161,7 @@ class AiServiceStreamingResponseHandler implements StreamingChatResponseHandler
                     context,
                     memoryId,
                     partialResponseHandler,
+                    partialResponseResetHandler,
                     partialToolExecutionRequestHandler,
                     completeToolExecutionRequestHandler,
                     toolExecutionHandler,
@@ -189,8 +207,12 @@ class AiServiceStreamingResponseHandler implements StreamingChatResponseHandler
 
                     // If we have output guardrails, we should process all of the partial responses first before
                     // completing
-                    responseBuffer.forEach(partialResponseHandler::accept);
-                    responseBuffer.clear();
+                    if (streamingGuardrailWindow != null) {
+                        streamingGuardrailWindow.complete(aiMessage.text(), finalChatResponse.aiMessage().text());
+                    } else {
+                        responseBuffer.forEach(partialResponseHandler::accept);
+                        responseBuffer.clear();
+                    }
                 }
 
                 // TODO should completeResponseHandler accept all ChatResponses that happened?
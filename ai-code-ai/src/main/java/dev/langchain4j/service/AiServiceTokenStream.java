@@ -37,6 +37,7 @@ public class AiServiceTokenStream implements dev.langchain4j.service.TokenStream
     private final Object methodKey;
 
     private Consumer<String> partialResponseHandler;
+    private Runnable partialResponseResetHandler;
     private Consumer<List<Content>> contentsHandler;
     private Consumer<ToolExecution> toolExecutionHandler;
     private Consumer<ChatResponse> completeResponseHandler;
@@ -76,6 +77,12 @@ public class AiServiceTokenStream implements dev.langchain4j.service.TokenStream
         return this;
     }
 
+    @Override
+    public dev.langchain4j.service.TokenStream onPartialResponseReset(Runnable partialResponseResetHandler) {
+        this.partialResponseResetHandler = partialResponseResetHandler;
+        return this;
+    }
+
     @Override
     public dev.langchain4j.service.TokenStream onPartialToolExecutionRequest(BiConsumer<Integer, ToolExecutionRequest> toolExecutionRequestHandler) {
         this.partialToolExecutionRequestHandler = toolExecutionRequestHandler;
@@ -142,6 +149,7 @@ public class AiServiceTokenStream implements dev.langchain4j.service.TokenStream
                 context,
                 memoryId,
                 partialResponseHandler,
+                partialResponseResetHandler,
                 partialToolExecutionRequestHandler,
                 completeToolExecutionRequestHandler,
                 toolExecutionHandler,
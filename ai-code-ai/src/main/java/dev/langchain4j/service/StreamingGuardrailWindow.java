@@ -0,0 +1,127 @@
+package dev.langchain4j.service;
+
+import com.easen.ai.guardrail.StreamingOutputGuardrail;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 流式输出护轨的滑动窗口
+ * 累积到窗口大小或遇到代码块边界时校验一次，通过后立即放行，只在内存中保留未放行部分和少量上下文；
+ * 最终校验重试得到新响应时，先通知下游作废本轮已放行的内容，再发送新响应
+ */
+class StreamingGuardrailWindow {
+
+    private static final String CODE_FENCE = "```";
+
+    private final List<StreamingOutputGuardrail> guardrails;
+    private final Consumer<String> downstream;
+    private final Runnable reset;
+    private final int windowSize;
+    private final int holdBack;
+
+    /**
+     * 尚未放行的内容
+     */
+    private final StringBuilder pending = new StringBuilder();
+
+    /**
+     * 已放行内容的末尾，作为下一个窗口的上下文
+     */
+    private String context = "";
+
+    /**
+     * 已放行的字符数
+     */
+    private int releasedLength;
+
+    /**
+     * 窗口校验失败后不再放行，等待完整响应的最终校验
+     */
+    private boolean blocked;
+
+    StreamingGuardrailWindow(List<StreamingOutputGuardrail> guardrails, Consumer<String> downstream, Runnable reset) {
+        this.guardrails = guardrails;
+        this.downstream = downstream;
+        this.reset = reset;
+        this.windowSize = guardrails.stream().mapToInt(StreamingOutputGuardrail::windowSize).min().orElse(200);
+        this.holdBack = guardrails.stream().mapToInt(StreamingOutputGuardrail::holdBack).max().orElse(0);
+    }
+
+    /**
+     * 追加一段流式内容
+     */
+    void append(String partialResponse) {
+        pending.append(partialResponse);
+        if (blocked) {
+            return;
+        }
+        if (pending.length() >= windowSize + holdBack || partialResponse.contains(CODE_FENCE)) {
+            validateAndRelease(false);
+        }
+    }
+
+    /**
+     * 本轮响应结束（例如进入工具调用），校验并放行剩余内容
+     * 工具调用轮次不会再经过最终校验，窗口已失败时作废本轮已放行的部分并丢弃暂存内容
+     */
+    void flush() {
+        if (blocked) {
+            if (releasedLength > 0) {
+                reset.run();
+            }
+            pending.setLength(0);
+            return;
+        }
+        if (pending.length() > 0) {
+            validateAndRelease(true);
+        }
+    }
+
+    /**
+     * 完整响应通过最终校验后放行剩余内容
+     *
+     * @param originalText  模型原始响应
+     * @param validatedText 护轨最终返回的响应（重试后可能与原始响应不同）
+     */
+    void complete(String originalText, String validatedText) {
+        if (validatedText == null) {
+            validatedText = "";
+        }
+        if (validatedText.equals(originalText)) {
+            // 最终校验已通过，窗口失败时暂存的内容也可以放行
+            if (pending.length() > 0) {
+                downstream.accept(pending.toString());
+            }
+        } else {
+            // 护轨重试得到了新响应，与已放行的内容无关：先让下游丢弃已放行部分，再完整发送新响应
+            if (releasedLength > 0) {
+                reset.run();
+            }
+            if (!validatedText.isEmpty()) {
+                downstream.accept(validatedText);
+            }
+        }
+        pending.setLength(0);
+    }
+
+    private void validateAndRelease(boolean last) {
+        String window = context + pending;
+        for (StreamingOutputGuardrail guardrail : guardrails) {
+            if (!guardrail.validatePartial(window).isSuccess()) {
+                blocked = true;
+                return;
+            }
+        }
+        int releasable = last ? pending.length() : Math.max(0, pending.length() - holdBack);
+        if (releasable == 0) {
+            return;
+        }
+        String released = pending.substring(0, releasable);
+        pending.delete(0, releasable);
+        releasedLength += released.length();
+        String tail = context + released;
+        context = tail.substring(Math.max(0, tail.length() - holdBack));
+        downstream.accept(released);
+    }
+}
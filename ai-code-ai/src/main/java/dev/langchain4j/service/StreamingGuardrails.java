@@ -0,0 +1,56 @@
+package dev.langchain4j.service;
+
+import com.easen.ai.guardrail.StreamingOutputGuardrail;
+import dev.langchain4j.guardrail.OutputGuardrail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 流式输出护轨注册入口
+ * 通过这里创建的 AI 服务构建器会把护轨同时注册为普通输出护轨（负责最终校验和重试）
+ * 和流式护轨（记录在服务上下文中，流式响应按窗口增量校验放行，而不是缓冲整个响应）
+ */
+public final class StreamingGuardrails {
+
+    private StreamingGuardrails() {
+    }
+
+    /**
+     * 创建注册了流式输出护轨的 AI 服务构建器
+     * 增量放行只对设置了 {@link TokenStream#onPartialResponseReset(Runnable)} 的流生效
+     *
+     * @param aiServiceClass AI 服务接口
+     * @param guardrails     输出护轨
+     * @return AI 服务构建器
+     */
+    public static <T> AiServices<T> builder(Class<T> aiServiceClass, StreamingOutputGuardrail... guardrails) {
+        StreamingGuardrailContext context = new StreamingGuardrailContext(aiServiceClass, List.of(guardrails));
+        AiServices<T> aiServices = new DefaultAiServices<>(context);
+        List<OutputGuardrail> outputGuardrails = new ArrayList<>(context.streamingGuardrails);
+        aiServices.outputGuardrails(outputGuardrails);
+        return aiServices;
+    }
+
+    /**
+     * 获取 AI 服务注册的流式输出护轨
+     */
+    static List<StreamingOutputGuardrail> of(AiServiceContext context) {
+        return context instanceof StreamingGuardrailContext streamingContext
+                ? streamingContext.streamingGuardrails
+                : List.of();
+    }
+
+    /**
+     * 携带流式输出护轨的服务上下文
+     */
+    private static final class StreamingGuardrailContext extends AiServiceContext {
+
+        private final List<StreamingOutputGuardrail> streamingGuardrails;
+
+        private StreamingGuardrailContext(Class<?> aiServiceClass, List<StreamingOutputGuardrail> streamingGuardrails) {
+            super(aiServiceClass);
+            this.streamingGuardrails = streamingGuardrails;
+        }
+    }
+}
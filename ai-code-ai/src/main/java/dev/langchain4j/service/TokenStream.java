@@ -27,6 +27,20 @@ public interface TokenStream {
      */
     TokenStream onPartialResponse(Consumer<String> partialResponseHandler);
 
+    /**
+     * The provided runnable will be invoked when the partial responses already delivered for the current
+     * model response are no longer valid, for example when an output guardrail rejected the response and a new one
+     * was generated. The consumer should discard those partial responses; the replacement follows through
+     * {@link #onPartialResponse(Consumer)}.
+     * <p>
+     * Output guardrails that support incremental validation only release partial responses early when this
+     * handler is set; otherwise the whole response is buffered until the guardrails have completed.
+     *
+     * @param partialResponseResetHandler lambda that will be invoked when delivered partial responses are discarded
+     * @return token stream instance used to configure or start stream processing
+     */
+    TokenStream onPartialResponseReset(Runnable partialResponseResetHandler);
+
     TokenStream onPartialToolExecutionRequest(BiConsumer<Integer, ToolExecutionRequest> toolExecutionRequestHandler);
 
     TokenStream onCompleteToolExecutionRequest(BiConsumer<Integer, ToolExecutionRequest> completedHandler);
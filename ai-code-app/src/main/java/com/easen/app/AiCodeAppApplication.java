@@ -6,11 +6,13 @@ import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication(exclude = {RedisEmbeddingStoreAutoConfiguration.class})
 //@EnableDubbo
 @MapperScan("com.easen.app.mapper")
 @ComponentScan("com.easen")
+@EnableScheduling
 public class AiCodeAppApplication {
     public static void main(String[] args) {
         SpringApplication.run(AiCodeAppApplication.class, args);
@@ -0,0 +1,24 @@
+package com.easen.app.ai;
+
+import com.easen.ai.AiAppNameGeneratorService;
+import com.easen.common.utils.SpringContextUtil;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.service.AiServices;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * AI 应用名称生成服务工厂
+ * 名称生成是简单的短文本任务，复用路由模型，不占用代码生成模型
+ */
+@Configuration
+public class AiAppNameGeneratorServiceFactory {
+
+    @Bean
+    public AiAppNameGeneratorService aiAppNameGeneratorService() {
+        ChatModel chatModel = SpringContextUtil.getBean("routingChatModelPrototype", ChatModel.class);
+        return AiServices.builder(AiAppNameGeneratorService.class)
+                .chatModel(chatModel)
+                .build();
+    }
+}
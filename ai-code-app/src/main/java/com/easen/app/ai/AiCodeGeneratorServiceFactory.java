@@ -1,27 +1,49 @@
 package com.easen.app.ai;
 
 
+import cn.hutool.core.io.FileUtil;
 import com.easen.ai.AiCodeGeneratorService;
+import com.easen.ai.artifact.CodeArtifactStore;
+import com.easen.ai.guardrail.PromptSafetyInputGuardrail;
+import com.easen.ai.guardrail.RetryOutputGuardrail;
+import com.easen.ai.memory.ArtifactAwareChatMemory;
 import com.easen.ai.tools.ToolManager;
+import com.easen.app.ai.usage.TokenUsageTrackingStreamingChatModel;
+import com.easen.app.core.GenerationTaskManager;
 import com.easen.app.service.ChatHistoryService;
+import com.easen.app.service.TokenUsageService;
+import com.easen.common.constant.AppConstant;
 import com.easen.common.exception.BusinessException;
 import com.easen.common.exception.ErrorCode;
 import com.easen.common.utils.SpringContextUtil;
 import com.easen.model.enums.CodeGenTypeEnum;
-import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
 import com.github.benmanes.caffeine.cache.Caffeine;
-import dev.langchain4j.community.store.memory.chat.redis.RedisChatMemoryStore;
 import dev.langchain4j.data.message.ToolExecutionResultMessage;
 import dev.langchain4j.memory.chat.MessageWindowChatMemory;
 import dev.langchain4j.model.chat.ChatModel;
 import dev.langchain4j.model.chat.StreamingChatModel;
 import dev.langchain4j.service.AiServices;
+import dev.langchain4j.service.StreamingGuardrails;
+import dev.langchain4j.store.memory.chat.ChatMemoryStore;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.io.File;
 import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Configuration
 @Slf4j
@@ -31,7 +53,7 @@ public class AiCodeGeneratorServiceFactory {
     private ChatModel chatModel;
 
     @Resource
-    private RedisChatMemoryStore redisChatMemoryStore;
+    private ChatMemoryStore redisChatMemoryStore;
 
     @Resource
     private ChatHistoryService chatHistoryService;
@@ -39,30 +61,95 @@ public class AiCodeGeneratorServiceFactory {
     @Resource
     private ToolManager toolManager;
 
+    @Resource
+    private TokenUsageService tokenUsageService;
+
+    @Resource
+    private GenerationTaskManager generationTaskManager;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    @Resource
+    private CodeArtifactStore codeArtifactStore;
+
     /**
-     * 创建新的 AI 服务实例
+     * 工具定义的估算占用，首次使用时计算
+     */
+    private volatile long toolBytes = -1;
+
+    /**
+     * 服务构建和记忆加载使用的虚拟线程池，避免占用请求线程和 ForkJoin 公共池
+     */
+    private final ExecutorService serviceBuildExecutor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("ai-service-build-", 0).factory());
+
+    /**
+     * 首次加载：从数据库加载历史对话与构建 AI 服务并行执行，两者都完成后才放入缓存
      */
-    private AiCodeGeneratorService createAiCodeGeneratorService(long appId, CodeGenTypeEnum codeGenType) {
-        // 根据 appId 构建独立的对话记忆
-        MessageWindowChatMemory chatMemory = MessageWindowChatMemory
+    private CompletableFuture<CachedAiService> loadAiCodeGeneratorService(ServiceCacheKey key, Executor executor) {
+        MessageWindowChatMemory chatMemory = buildChatMemory(key.appId());
+        CompletableFuture<Integer> hydrateFuture = CompletableFuture.supplyAsync(
+                () -> chatHistoryService.loadChatHistoryToMemory(key.appId(), chatMemory, 20), executor);
+        CompletableFuture<AiCodeGeneratorService> buildFuture = CompletableFuture.supplyAsync(
+                () -> createAiCodeGeneratorService(key.appId(), key.codeGenType(), chatMemory), executor);
+        return buildFuture.thenCombine(hydrateFuture,
+                (service, loadedCount) -> new CachedAiService(service, estimateWeight(key.codeGenType())));
+    }
+
+    /**
+     * 提前刷新：对话记忆已在 Redis 中，只重建服务实例，不再从数据库加载
+     */
+    private CompletableFuture<CachedAiService> reloadAiCodeGeneratorService(ServiceCacheKey key, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> {
+            MessageWindowChatMemory chatMemory = buildChatMemory(key.appId());
+            AiCodeGeneratorService service = createAiCodeGeneratorService(key.appId(), key.codeGenType(), chatMemory);
+            return new CachedAiService(service, estimateWeight(key.codeGenType()));
+        }, executor);
+    }
+
+    /**
+     * 估算服务实例的占用字节数，作为缓存权重
+     * 对话记忆的消息不在服务实例中，由对话记忆存储的本地缓存单独按字节数限制，这里不计入也无需读取记忆
+     */
+    private int estimateWeight(CodeGenTypeEnum codeGenType) {
+        if (toolBytes < 0) {
+            toolBytes = AiServiceSizeEstimator.estimateTools(toolManager.getAllTools());
+        }
+        long bytes = AiServiceSizeEstimator.estimate(codeGenType, toolBytes);
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 根据 appId 构建独立的对话记忆
+     */
+    private MessageWindowChatMemory buildChatMemory(long appId) {
+        return MessageWindowChatMemory
                 .builder()
                 .id(appId)
                 .chatMemoryStore(redisChatMemoryStore)
                 .maxMessages(20)
                 .build();
-        // 从数据库加载历史对话到记忆中
-        chatHistoryService.loadChatHistoryToMemory(appId, chatMemory, 20);
+    }
+
+    /**
+     * 创建新的 AI 服务实例
+     */
+    private AiCodeGeneratorService createAiCodeGeneratorService(long appId, CodeGenTypeEnum codeGenType,
+                                                                MessageWindowChatMemory chatMemory) {
         // 根据代码生成类型选择不同的模型配置
         return switch (codeGenType) {
             case VUE_PROJECT -> {
                 // 使用多例模式的 StreamingChatModel 解决并发问题
-                StreamingChatModel reasoningStreamingChatModel = SpringContextUtil.getBean("reasoningStreamingChatModelPrototype", StreamingChatModel.class);
-                yield AiServices.builder(AiCodeGeneratorService.class)
+                StreamingChatModel reasoningStreamingChatModel = trackTokenUsage(appId,
+                        SpringContextUtil.getBean("reasoningStreamingChatModelPrototype", StreamingChatModel.class));
+                // 输出护轨按窗口增量校验，重试时通过 TokenStream 的重置回调作废已推送的回复
+                yield StreamingGuardrails.builder(AiCodeGeneratorService.class, new RetryOutputGuardrail())
                         .streamingChatModel(reasoningStreamingChatModel)
                         .chatMemoryProvider(memoryId -> chatMemory)
-                        .tools(toolManager.getAllTools())
+                        .tools(toolManager.getToolExecutors())
                         .maxSequentialToolsInvocations(15)  // 最多连续调用 15 次工具
-//                        .inputGuardrails(new PromptSafetyInputGuardrail()) // 添加输入护轨
+                        .inputGuardrails(new PromptSafetyInputGuardrail()) // 添加输入护轨
                         .hallucinatedToolNameStrategy(toolExecutionRequest -> ToolExecutionResultMessage.from(
                                 toolExecutionRequest, "Error: there is no tool called " + toolExecutionRequest.name()
                         ))
@@ -70,12 +157,15 @@ public class AiCodeGeneratorServiceFactory {
             }
             case HTML, MULTI_FILE -> {
                 // 使用多例模式的 StreamingChatModel 解决并发问题
-                StreamingChatModel openAiStreamingChatModel = SpringContextUtil.getBean("streamingChatModelPrototype", StreamingChatModel.class);
+                StreamingChatModel openAiStreamingChatModel = trackTokenUsage(appId,
+                        SpringContextUtil.getBean("streamingChatModelPrototype", StreamingChatModel.class));
                 yield AiServices.builder(AiCodeGeneratorService.class)
                         .chatModel(chatModel)
                         .streamingChatModel(openAiStreamingChatModel)
-                        .chatMemory(chatMemory)
-//                        .inputGuardrails(new PromptSafetyInputGuardrail()) // 添加输入护轨
+                        // 历史回复中的代码只保留引用，当前代码在输入护轨之后才附加到最新用户消息
+                        .chatMemory(new ArtifactAwareChatMemory(chatMemory, codeArtifactStore,
+                                () -> buildCurrentCodeContext(appId, codeGenType)))
+                        .inputGuardrails(new PromptSafetyInputGuardrail()) // 添加输入护轨
                         .build();
             }
             default -> throw new BusinessException(ErrorCode.SYSTEM_ERROR,
@@ -84,22 +174,96 @@ public class AiCodeGeneratorServiceFactory {
 
     }
 
+    /**
+     * 构建当前已生成代码的上下文
+     * 直接附加文件内容，只在本轮请求中使用，不计入用户输入长度，也不写入对话记忆，因此无需存入代码产物存储
+     *
+     * @param appId       应用 ID
+     * @param codeGenType 代码生成类型
+     * @return 当前代码上下文，没有已生成代码时返回空字符串
+     */
+    private String buildCurrentCodeContext(long appId, CodeGenTypeEnum codeGenType) {
+        String codeDir = AppConstant.CODE_OUTPUT_ROOT_DIR + File.separator + codeGenType.getValue() + "_" + appId;
+        List<String> fileNames = codeGenType == CodeGenTypeEnum.HTML
+                ? List.of("index.html")
+                : List.of("index.html", "style.css", "script.js");
+        StringBuilder currentCode = new StringBuilder();
+        for (String fileName : fileNames) {
+            File file = new File(codeDir, fileName);
+            if (!file.isFile()) {
+                continue;
+            }
+            String language = FileUtil.extName(fileName);
+            currentCode.append("\n").append(fileName).append("：\n```").append(language).append("\n")
+                    .append(FileUtil.readUtf8String(file))
+                    .append("\n```\n");
+        }
+        if (currentCode.isEmpty()) {
+            return "";
+        }
+        return "\n\n当前已生成的代码如下（历史消息中的 [[artifact:...]] 是已省略的历史代码引用，回复时请始终输出完整代码）：\n"
+                + currentCode;
+    }
+
+    /**
+     * 包装流式模型，记录该应用每轮调用的 token 用量
+     */
+    private StreamingChatModel trackTokenUsage(long appId, StreamingChatModel streamingChatModel) {
+        return new TokenUsageTrackingStreamingChatModel(streamingChatModel, appId, tokenUsageService, generationTaskManager);
+    }
+
 
     /**
-     * AI 服务实例缓存
+     * AI 服务实例缓存（异步加载）
      * 缓存策略：
-     * - 最大缓存 1000 个实例
+     * - 按估算占用的总字节数淘汰，上限为最大堆内存的一定比例
+     * - 同一个键同时只会有一次构建，并发请求共享同一个 future
+     * - 写入 20 分钟后的下一次访问在后台提前刷新，请求继续使用旧实例
      * - 写入后 30 分钟过期
      * - 访问后 10 分钟过期
      */
-    private final Cache<String, AiCodeGeneratorService> serviceCache = Caffeine.newBuilder()
-            .maximumSize(1000)
-            .expireAfterWrite(Duration.ofMinutes(30))
-            .expireAfterAccess(Duration.ofMinutes(10))
-            .removalListener((key, value, cause) -> {
-                log.debug("AI 服务实例被移除，缓存键: {}, 原因: {}", key, cause);
-            })
-            .build();
+    private final AsyncLoadingCache<ServiceCacheKey, CachedAiService> serviceCache;
+
+    public AiCodeGeneratorServiceFactory(@Value("${ai.service-cache.heap-percent:10}") int heapPercent) {
+        long maximumWeight = Runtime.getRuntime().maxMemory() / 100 * heapPercent;
+        this.serviceCache = Caffeine.newBuilder()
+                .maximumWeight(maximumWeight)
+                .<ServiceCacheKey, CachedAiService>weigher((key, value) -> value.weight())
+                .refreshAfterWrite(Duration.ofMinutes(20))
+                .expireAfterWrite(Duration.ofMinutes(30))
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .executor(serviceBuildExecutor)
+                .removalListener((key, value, cause) -> {
+                    log.debug("AI 服务实例被移除，缓存键: {}, 原因: {}", key, cause);
+                })
+                .buildAsync(new AsyncCacheLoader<ServiceCacheKey, CachedAiService>() {
+                    @Override
+                    public CompletableFuture<CachedAiService> asyncLoad(ServiceCacheKey key, Executor executor) {
+                        return loadAiCodeGeneratorService(key, executor);
+                    }
+
+                    @Override
+                    public CompletableFuture<CachedAiService> asyncReload(ServiceCacheKey key, CachedAiService oldValue,
+                                                                          Executor executor) {
+                        return reloadAiCodeGeneratorService(key, executor);
+                    }
+                });
+    }
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("ai.service.cache.weight", this, factory -> factory.serviceCache.synchronous().policy()
+                        .eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L))
+                .description("AI 服务缓存的估算占用字节数")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("ai.service.cache.max.weight", this, factory -> factory.serviceCache.synchronous().policy()
+                        .eviction().map(eviction -> eviction.getMaximum()).orElse(0L))
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("ai.service.cache.size", this, factory -> factory.serviceCache.synchronous().estimatedSize())
+                .register(meterRegistry);
+    }
 
     /**
      * 根据 appId 获取服务（带缓存）这个方法是为了兼容历史逻辑
@@ -109,18 +273,37 @@ public class AiCodeGeneratorServiceFactory {
     }
 
     /**
-     * 根据 appId 和代码生成类型获取服务（带缓存）
+     * 根据 appId 和代码生成类型获取服务（带缓存，阻塞等待构建完成）
      */
     public AiCodeGeneratorService getAiCodeGeneratorService(long appId, CodeGenTypeEnum codeGenType) {
-        String cacheKey = buildCacheKey(appId, codeGenType);
-        return serviceCache.get(cacheKey, key -> createAiCodeGeneratorService(appId, codeGenType));
+        try {
+            return getAiCodeGeneratorServiceAsync(appId, codeGenType).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "AI 服务创建失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 根据 appId 和代码生成类型异步获取服务（带缓存）
+     * 缓存未命中时不阻塞调用线程，服务构建与历史对话加载在虚拟线程中并行执行
+     */
+    public CompletableFuture<AiCodeGeneratorService> getAiCodeGeneratorServiceAsync(long appId, CodeGenTypeEnum codeGenType) {
+        return serviceCache.get(new ServiceCacheKey(appId, codeGenType)).thenApply(CachedAiService::service);
+    }
+
+    /**
+     * 缓存键
+     */
+    private record ServiceCacheKey(long appId, CodeGenTypeEnum codeGenType) {
     }
 
     /**
-     * 构建缓存键
+     * 缓存值：服务实例以及估算的占用字节数
      */
-    private String buildCacheKey(long appId, CodeGenTypeEnum codeGenType) {
-        return appId + "_" + codeGenType.getValue();
+    private record CachedAiService(AiCodeGeneratorService service, int weight) {
     }
 
     /**
@@ -0,0 +1,61 @@
+package com.easen.app.ai;
+
+import com.easen.model.enums.CodeGenTypeEnum;
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.agent.tool.ToolSpecifications;
+
+/**
+ * AI 服务实例的堆内存占用估算
+ * 只做粗略估算，用于缓存按总字节数淘汰：模型客户端 + AI 服务代理 + 工具定义。
+ * 对话记忆中的消息保存在对话记忆存储的本地缓存中，由该缓存按字节数单独限制，不计入服务实例
+ */
+final class AiServiceSizeEstimator {
+
+    /**
+     * 模型客户端（HTTP 客户端、请求参数、监听器等）
+     */
+    private static final long MODEL_CLIENT_BYTES = 128 * 1024;
+
+    /**
+     * AI 服务代理及其上下文
+     */
+    private static final long AI_SERVICE_BYTES = 32 * 1024;
+
+    private AiServiceSizeEstimator() {
+    }
+
+    /**
+     * 估算一个缓存的 AI 服务实例的占用
+     *
+     * @param codeGenType 代码生成类型
+     * @param toolBytes   工具定义的占用（仅 Vue 工程模式使用工具）
+     * @return 估算字节数
+     */
+    static long estimate(CodeGenTypeEnum codeGenType, long toolBytes) {
+        long bytes = MODEL_CLIENT_BYTES + AI_SERVICE_BYTES;
+        if (codeGenType == CodeGenTypeEnum.VUE_PROJECT) {
+            bytes += toolBytes;
+        }
+        return bytes;
+    }
+
+    /**
+     * 估算工具定义的占用
+     */
+    static long estimateTools(Object[] tools) {
+        long bytes = 0;
+        for (Object tool : tools) {
+            for (ToolSpecification specification : ToolSpecifications.toolSpecificationsFrom(tool)) {
+                bytes += stringBytes(specification.toString());
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * 按 UTF-16 估算字符串占用（不考虑 Latin-1 压缩，偏保守）
+     */
+    private static long stringBytes(String value) {
+        return value == null ? 0 : 40L + 2L * value.length();
+    }
+}
@@ -0,0 +1,98 @@
+package com.easen.app.ai;
+
+import com.easen.app.core.GenerationTaskManager;
+import com.easen.app.mapper.AppMapper;
+import com.easen.model.entity.App;
+import com.easen.model.enums.CodeGenTypeEnum;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+
+/**
+ * AI 服务预热管理器
+ * 用户打开应用页面（加载对话历史）时，在后台提前构建 AI 服务并加载对话记忆，
+ * 让用户的第一条消息直接命中缓存。同一应用在去重窗口内只预热一次，并发预热数量受限
+ */
+@Slf4j
+@Component
+public class AiServiceWarmUpManager {
+
+    @Resource
+    private AiCodeGeneratorServiceFactory aiCodeGeneratorServiceFactory;
+
+    @Resource
+    private AppMapper appMapper;
+
+    @Resource
+    private GenerationTaskManager generationTaskManager;
+
+    /**
+     * 最近已触发预热的应用，用于去重
+     */
+    private final Cache<Long, Boolean> recentWarmUps;
+
+    /**
+     * 同时进行的预热任务上限，超出时直接放弃，不排队
+     */
+    private final Semaphore warmUpPermits;
+
+    public AiServiceWarmUpManager(@Value("${ai.warm-up.dedup-seconds:300}") long dedupSeconds,
+                                  @Value("${ai.warm-up.max-concurrent:8}") int maxConcurrent) {
+        this.recentWarmUps = Caffeine.newBuilder()
+                .maximumSize(10000)
+                .expireAfterWrite(Duration.ofSeconds(dedupSeconds))
+                .build();
+        this.warmUpPermits = new Semaphore(maxConcurrent);
+    }
+
+    /**
+     * 触发应用 AI 服务预热（异步，不阻塞调用方）
+     *
+     * @param appId 应用 ID
+     */
+    public void warmUp(Long appId) {
+        if (appId == null || appId <= 0 || generationTaskManager.hasActiveTask(appId)) {
+            return;
+        }
+        // 去重：去重窗口内已预热过的应用直接跳过
+        if (recentWarmUps.asMap().putIfAbsent(appId, Boolean.TRUE) != null) {
+            return;
+        }
+        // 限流：没有空闲许可时放弃本次预热，并允许之后重新触发
+        if (!warmUpPermits.tryAcquire()) {
+            recentWarmUps.invalidate(appId);
+            log.debug("预热任务已达上限，跳过: appId={}", appId);
+            return;
+        }
+        Thread.ofVirtual().name("ai-service-warm-up-" + appId).start(() -> {
+            try {
+                App app = appMapper.selectOneById(appId);
+                CodeGenTypeEnum codeGenType = app == null ? null : CodeGenTypeEnum.getEnumByValue(app.getCodeGenType());
+                if (codeGenType == null) {
+                    warmUpPermits.release();
+                    return;
+                }
+                aiCodeGeneratorServiceFactory.getAiCodeGeneratorServiceAsync(appId, codeGenType)
+                        .whenComplete((service, error) -> {
+                            warmUpPermits.release();
+                            if (error != null) {
+                                recentWarmUps.invalidate(appId);
+                                log.warn("AI 服务预热失败: appId={}, error={}", appId, error.getMessage());
+                            } else {
+                                log.debug("AI 服务预热完成: appId={}, codeGenType={}", appId, codeGenType.getValue());
+                            }
+                        });
+            } catch (Exception e) {
+                warmUpPermits.release();
+                recentWarmUps.invalidate(appId);
+                log.warn("AI 服务预热失败: appId={}, error={}", appId, e.getMessage());
+            }
+        });
+    }
+}
@@ -0,0 +1,127 @@
+package com.easen.app.ai;
+
+import cn.hutool.core.util.StrUtil;
+import com.easen.ai.AiAppNameGeneratorService;
+import com.easen.app.mapper.AppMapper;
+import com.easen.common.constant.AppConstant;
+import com.easen.model.entity.App;
+import com.mybatisflex.core.query.QueryWrapper;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 应用名称生成器
+ * 首次生成代码完成后在后台为未命名的应用生成名称，同一应用同时只有一个生成任务。
+ * 部署不再等待名称生成：名称未就绪时先写入占位名称，生成完成后再替换
+ */
+@Slf4j
+@Component
+public class AppNameGenerator {
+
+    /**
+     * 与手动修改名称的限制保持一致
+     */
+    private static final int MAX_NAME_LENGTH = 10;
+
+    @Resource
+    private AiAppNameGeneratorService aiAppNameGeneratorService;
+
+    @Resource
+    private AppMapper appMapper;
+
+    /**
+     * key: appId，进行中的名称生成任务
+     */
+    private final Map<Long, CompletableFuture<String>> runningTasks = new ConcurrentHashMap<>();
+
+    /**
+     * 触发名称生成（异步，应用已有名称时不做任何事）
+     *
+     * @param appId 应用 ID
+     * @return 生成结果，无需生成或生成失败时为 null
+     */
+    public CompletableFuture<String> generateAsync(Long appId) {
+        if (appId == null || appId <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<String> created = new CompletableFuture<>();
+        CompletableFuture<String> existing = runningTasks.putIfAbsent(appId, created);
+        if (existing != null) {
+            return existing;
+        }
+        Thread.ofVirtual().name("app-name-generator-" + appId).start(() -> {
+            try {
+                created.complete(generate(appId));
+            } catch (Exception e) {
+                log.warn("应用名称生成失败: appId={}, error={}", appId, e.getMessage());
+                created.complete(null);
+            } finally {
+                runningTasks.remove(appId, created);
+            }
+        });
+        return created;
+    }
+
+    /**
+     * 应用还没有名称时写入占位名称，并触发名称生成
+     *
+     * @param appId 应用 ID
+     */
+    public void fillPlaceholder(Long appId) {
+        App app = new App();
+        app.setAppName(AppConstant.APP_NAME_PLACEHOLDER);
+        // 只在名称为空时写入，避免覆盖刚生成好的名称
+        appMapper.updateByQuery(app, QueryWrapper.create()
+                .eq("id", appId)
+                .and("appName IS NULL"));
+        generateAsync(appId);
+    }
+
+    /**
+     * 是否需要生成名称
+     */
+    public static boolean needsName(String appName) {
+        return StrUtil.isBlank(appName) || AppConstant.APP_NAME_PLACEHOLDER.equals(appName);
+    }
+
+    private String generate(Long appId) {
+        App app = appMapper.selectOneById(appId);
+        if (app == null || !needsName(app.getAppName()) || StrUtil.isBlank(app.getInitPrompt())) {
+            return null;
+        }
+        long start = System.currentTimeMillis();
+        String appName = normalize(aiAppNameGeneratorService.generateAppName(app.getInitPrompt()));
+        if (StrUtil.isBlank(appName)) {
+            log.warn("AI 生成的名称不符合规范: appId={}", appId);
+            return null;
+        }
+        App updateApp = new App();
+        updateApp.setAppName(appName);
+        // 只替换空名称或占位名称，用户在生成期间手动改过的名称保持不变
+        int updated = appMapper.updateByQuery(updateApp, QueryWrapper.create()
+                .eq("id", appId)
+                .and("(appName IS NULL OR appName = ?)", AppConstant.APP_NAME_PLACEHOLDER));
+        if (updated == 0) {
+            return null;
+        }
+        log.info("应用名称已生成: appId={}, appName={}, 耗时={}ms", appId, appName, System.currentTimeMillis() - start);
+        return appName;
+    }
+
+    /**
+     * 去掉模型偶尔附带的引号、书名号和换行
+     */
+    private static String normalize(String appName) {
+        if (appName == null) {
+            return null;
+        }
+        String name = StrUtil.subBefore(appName.trim(), '\n', false)
+                .replaceAll("^[\"'“”《》「」\\s]+|[\"'“”《》「」\\s]+$", "");
+        return name.length() > MAX_NAME_LENGTH ? name.substring(0, MAX_NAME_LENGTH) : name;
+    }
+}
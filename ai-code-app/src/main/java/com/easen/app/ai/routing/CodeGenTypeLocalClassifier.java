@@ -0,0 +1,184 @@
+package com.easen.app.ai.routing;
+
+import cn.hutool.core.util.StrUtil;
+import com.easen.model.enums.CodeGenTypeEnum;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 代码生成类型本地分类器
+ * 基于历史 initPrompt -> codeGenType 样本训练的 n-gram 朴素贝叶斯模型，
+ * 用于在本地快速判断明确的需求，只有模糊的需求才交给 LLM 路由
+ */
+public class CodeGenTypeLocalClassifier {
+
+    private static final CodeGenTypeEnum[] TYPES = CodeGenTypeEnum.values();
+
+    /**
+     * 特征 -> 各类型下出现次数
+     */
+    private final ConcurrentHashMap<String, AtomicLongArray> featureCounts = new ConcurrentHashMap<>();
+
+    /**
+     * 各类型的特征总数
+     */
+    private final AtomicLongArray typeFeatureTotals = new AtomicLongArray(TYPES.length);
+
+    /**
+     * 各类型的样本数
+     */
+    private final AtomicLongArray typeSampleCounts = new AtomicLongArray(TYPES.length);
+
+    private final AtomicLong totalSamples = new AtomicLong();
+
+    /**
+     * 归一化提示词，同时作为决策缓存的 key
+     *
+     * @param prompt 原始提示词
+     * @return 归一化后的提示词
+     */
+    public static String normalize(String prompt) {
+        if (StrUtil.isBlank(prompt)) {
+            return "";
+        }
+        StringBuilder builder = new StringBuilder(prompt.length());
+        boolean lastSpace = true;
+        for (int i = 0; i < prompt.length(); i++) {
+            char c = Character.toLowerCase(prompt.charAt(i));
+            if (Character.isLetterOrDigit(c)) {
+                builder.append(c);
+                lastSpace = false;
+            } else if (!lastSpace) {
+                // 标点和空白统一折叠为一个空格
+                builder.append(' ');
+                lastSpace = true;
+            }
+        }
+        return builder.toString().trim();
+    }
+
+    /**
+     * 学习一条样本
+     *
+     * @param normalizedPrompt 归一化后的提示词
+     * @param codeGenType      对应的代码生成类型
+     */
+    public void learn(String normalizedPrompt, CodeGenTypeEnum codeGenType) {
+        if (StrUtil.isBlank(normalizedPrompt) || codeGenType == null) {
+            return;
+        }
+        int typeIndex = codeGenType.ordinal();
+        Set<String> features = extractFeatures(normalizedPrompt);
+        for (String feature : features) {
+            featureCounts.computeIfAbsent(feature, key -> new AtomicLongArray(TYPES.length))
+                    .incrementAndGet(typeIndex);
+        }
+        typeFeatureTotals.addAndGet(typeIndex, features.size());
+        typeSampleCounts.incrementAndGet(typeIndex);
+        totalSamples.incrementAndGet();
+    }
+
+    /**
+     * 预测代码生成类型
+     *
+     * @param normalizedPrompt 归一化后的提示词
+     * @return 预测结果，样本不足时类型为 null
+     */
+    public Prediction predict(String normalizedPrompt) {
+        long samples = totalSamples.get();
+        Set<String> features = extractFeatures(normalizedPrompt);
+        if (samples == 0 || features.isEmpty()) {
+            return new Prediction(null, 0, samples);
+        }
+        // 拉普拉斯平滑的对数概率
+        double vocabularySize = Math.max(featureCounts.size(), 1);
+        double[] scores = new double[TYPES.length];
+        for (int i = 0; i < TYPES.length; i++) {
+            long typeSamples = typeSampleCounts.get(i);
+            double denominator = typeFeatureTotals.get(i) + vocabularySize;
+            double score = Math.log((typeSamples + 1.0) / (samples + TYPES.length));
+            for (String feature : features) {
+                AtomicLongArray counts = featureCounts.get(feature);
+                long count = counts == null ? 0 : counts.get(i);
+                score += Math.log((count + 1.0) / denominator);
+            }
+            scores[i] = score;
+        }
+        // softmax 得到后验概率，取最大值作为置信度
+        int best = 0;
+        for (int i = 1; i < scores.length; i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        double sum = 0;
+        for (double score : scores) {
+            sum += Math.exp(score - scores[best]);
+        }
+        return new Prediction(TYPES[best], 1.0 / sum, samples);
+    }
+
+    /**
+     * 已学习的样本数
+     */
+    public long getSampleCount() {
+        return totalSamples.get();
+    }
+
+    /**
+     * 提取特征：字符二元组（适配中文）+ 英文/数字单词
+     */
+    private Set<String> extractFeatures(String normalizedPrompt) {
+        Set<String> features = new LinkedHashSet<>();
+        if (StrUtil.isBlank(normalizedPrompt)) {
+            return features;
+        }
+        for (String word : normalizedPrompt.split(" ")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            if (isAscii(word)) {
+                features.add("w:" + word);
+                continue;
+            }
+            if (word.length() == 1) {
+                features.add("c:" + word);
+                continue;
+            }
+            for (int i = 0; i + 1 < word.length(); i++) {
+                features.add("b:" + word.substring(i, i + 2));
+            }
+        }
+        return features;
+    }
+
+    private boolean isAscii(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (word.charAt(i) > 0x7f) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 预测结果
+     *
+     * @param codeGenType 预测的类型
+     * @param confidence  后验概率
+     * @param sampleCount 预测时模型的样本数
+     */
+    public record Prediction(CodeGenTypeEnum codeGenType, double confidence, long sampleCount) {
+
+        /**
+         * 是否足够可信，可以跳过 LLM
+         */
+        public boolean isConfident(double threshold, long minSamples) {
+            return codeGenType != null && sampleCount >= minSamples && confidence >= threshold;
+        }
+    }
+}
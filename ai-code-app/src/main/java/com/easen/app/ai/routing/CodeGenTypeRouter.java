@@ -0,0 +1,196 @@
+package com.easen.app.ai.routing;
+
+import cn.hutool.core.util.StrUtil;
+import com.easen.ai.AiCodeGenTypeRoutingService;
+import com.easen.app.ai.AiCodeGenTypeRoutingServiceFactory;
+import com.easen.app.mapper.AppMapper;
+import com.easen.model.entity.App;
+import com.easen.model.enums.CodeGenTypeEnum;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mybatisflex.core.query.QueryWrapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 代码生成类型路由器
+ * 决策顺序：归一化提示词缓存 -> 本地分类器（高置信度） -> LLM 路由
+ * 并通过指标记录本地分类器与 LLM 的一致率，用于判断快速通道是否安全
+ */
+@Slf4j
+@Component
+public class CodeGenTypeRouter {
+
+    @Resource
+    private AiCodeGenTypeRoutingServiceFactory aiCodeGenTypeRoutingServiceFactory;
+
+    @Resource
+    private AppMapper appMapper;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 本地分类器的置信度阈值
+     */
+    @Value("${ai.routing.local-confidence:0.9}")
+    private double localConfidence;
+
+    /**
+     * 启用本地分类器所需的最少样本数
+     */
+    @Value("${ai.routing.min-samples:200}")
+    private long minSamples;
+
+    /**
+     * 快速通道决策抽样交给 LLM 复核的比例
+     */
+    @Value("${ai.routing.shadow-check-rate:0.05}")
+    private double shadowCheckRate;
+
+    /**
+     * 启动时用于训练的历史应用数量
+     */
+    @Value("${ai.routing.train-size:5000}")
+    private int trainSize;
+
+    private final CodeGenTypeLocalClassifier classifier = new CodeGenTypeLocalClassifier();
+
+    /**
+     * 归一化提示词 -> 路由决策
+     */
+    private final Cache<String, CodeGenTypeEnum> decisionCache = Caffeine.newBuilder()
+            .maximumSize(10000)
+            .expireAfterWrite(Duration.ofDays(1))
+            .build();
+
+    private final AtomicLong agreeCount = new AtomicLong();
+
+    private final AtomicLong disagreeCount = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("ai.routing.agreement.rate", this, CodeGenTypeRouter::getAgreementRate)
+                .description("本地分类器与 LLM 路由结果的一致率")
+                .register(meterRegistry);
+        Gauge.builder("ai.routing.classifier.samples", classifier, CodeGenTypeLocalClassifier::getSampleCount)
+                .register(meterRegistry);
+        // 训练需要查库，放到虚拟线程中避免拖慢启动
+        Thread.ofVirtual().name("routing-classifier-train").start(this::trainFromHistory);
+    }
+
+    /**
+     * 根据用户需求选择代码生成类型
+     *
+     * @param userPrompt 用户输入的需求描述
+     * @return 代码生成类型
+     */
+    public CodeGenTypeEnum route(String userPrompt) {
+        String normalizedPrompt = CodeGenTypeLocalClassifier.normalize(userPrompt);
+        CodeGenTypeEnum cached = decisionCache.getIfPresent(normalizedPrompt);
+        if (cached != null) {
+            recordDecision("cache");
+            return cached;
+        }
+        CodeGenTypeLocalClassifier.Prediction prediction = classifier.predict(normalizedPrompt);
+        if (prediction.isConfident(localConfidence, minSamples)) {
+            CodeGenTypeEnum codeGenType = prediction.codeGenType();
+            recordDecision("local");
+            decisionCache.put(normalizedPrompt, codeGenType);
+            if (ThreadLocalRandom.current().nextDouble() < shadowCheckRate) {
+                shadowCheckAsync(userPrompt, codeGenType);
+            }
+            return codeGenType;
+        }
+        // 模糊需求交给 LLM 判断
+        CodeGenTypeEnum codeGenType = routeByLlm(userPrompt);
+        recordDecision("llm");
+        if (prediction.codeGenType() != null) {
+            recordAgreement("ambiguous", prediction.codeGenType() == codeGenType);
+        }
+        classifier.learn(normalizedPrompt, codeGenType);
+        decisionCache.put(normalizedPrompt, codeGenType);
+        return codeGenType;
+    }
+
+    /**
+     * 快速通道决策的一致率（抽样复核 + 模糊请求对比）
+     *
+     * @return 一致率，没有样本时返回 NaN
+     */
+    public double getAgreementRate() {
+        long agree = agreeCount.get();
+        long total = agree + disagreeCount.get();
+        return total == 0 ? Double.NaN : (double) agree / total;
+    }
+
+    /**
+     * 调用 LLM 路由
+     */
+    private CodeGenTypeEnum routeByLlm(String userPrompt) {
+        AiCodeGenTypeRoutingService routingService = aiCodeGenTypeRoutingServiceFactory.createAiCodeGenTypeRoutingService();
+        return routingService.routeCodeGenType(userPrompt);
+    }
+
+    /**
+     * 抽样使用 LLM 复核快速通道的决策
+     */
+    private void shadowCheckAsync(String userPrompt, CodeGenTypeEnum localType) {
+        Thread.ofVirtual().name("routing-shadow-check").start(() -> {
+            try {
+                CodeGenTypeEnum llmType = routeByLlm(userPrompt);
+                boolean agreed = llmType == localType;
+                recordAgreement("fast", agreed);
+                if (!agreed) {
+                    log.warn("本地路由与 LLM 路由不一致，本地: {}, LLM: {}", localType, llmType);
+                }
+            } catch (Exception e) {
+                log.warn("路由抽样复核失败: {}", e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 使用历史应用的 initPrompt -> codeGenType 训练本地分类器
+     */
+    private void trainFromHistory() {
+        try {
+            QueryWrapper queryWrapper = QueryWrapper.create()
+                    .select("initPrompt", "codeGenType")
+                    .orderBy("createTime", false)
+                    .limit(trainSize);
+            List<App> appList = appMapper.selectListByQuery(queryWrapper);
+            int learned = 0;
+            for (App app : appList) {
+                CodeGenTypeEnum codeGenType = CodeGenTypeEnum.getEnumByValue(app.getCodeGenType());
+                if (codeGenType == null || StrUtil.isBlank(app.getInitPrompt())) {
+                    continue;
+                }
+                classifier.learn(CodeGenTypeLocalClassifier.normalize(app.getInitPrompt()), codeGenType);
+                learned++;
+            }
+            log.info("路由本地分类器训练完成，样本数: {}", learned);
+        } catch (Exception e) {
+            log.error("路由本地分类器训练失败，将全部使用 LLM 路由: {}", e.getMessage(), e);
+        }
+    }
+
+    private void recordDecision(String source) {
+        meterRegistry.counter("ai.routing.decision", "source", source).increment();
+    }
+
+    private void recordAgreement(String path, boolean agreed) {
+        (agreed ? agreeCount : disagreeCount).incrementAndGet();
+        meterRegistry.counter("ai.routing.agreement", "path", path, "result", agreed ? "agree" : "disagree").increment();
+    }
+}
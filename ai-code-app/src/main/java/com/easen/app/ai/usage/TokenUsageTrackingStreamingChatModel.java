@@ -0,0 +1,113 @@
+package com.easen.app.ai.usage;
+
+import com.easen.app.core.GenerationTaskManager;
+import com.easen.app.service.TokenUsageService;
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.model.ModelProvider;
+import dev.langchain4j.model.chat.Capability;
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.chat.listener.ChatModelListener;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.request.ChatRequestParameters;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 记录 token 用量的流式模型装饰器
+ * 每个应用的 AI 服务持有独立的实例，每轮模型响应结束后把用量归属到该应用和当前生成任务的用户
+ */
+@Slf4j
+public class TokenUsageTrackingStreamingChatModel implements StreamingChatModel {
+
+    private final StreamingChatModel delegate;
+
+    private final long appId;
+
+    private final TokenUsageService tokenUsageService;
+
+    private final GenerationTaskManager generationTaskManager;
+
+    public TokenUsageTrackingStreamingChatModel(StreamingChatModel delegate, long appId,
+                                                TokenUsageService tokenUsageService,
+                                                GenerationTaskManager generationTaskManager) {
+        this.delegate = delegate;
+        this.appId = appId;
+        this.tokenUsageService = tokenUsageService;
+        this.generationTaskManager = generationTaskManager;
+    }
+
+    @Override
+    public void chat(ChatRequest chatRequest, StreamingChatResponseHandler handler) {
+        delegate.chat(chatRequest, new StreamingChatResponseHandler() {
+
+            @Override
+            public void onPartialResponse(String partialResponse) {
+                handler.onPartialResponse(partialResponse);
+            }
+
+            @Override
+            public void onPartialToolExecutionRequest(int index, ToolExecutionRequest partialToolExecutionRequest) {
+                handler.onPartialToolExecutionRequest(index, partialToolExecutionRequest);
+            }
+
+            @Override
+            public void onCompleteToolExecutionRequest(int index, ToolExecutionRequest completeToolExecutionRequest) {
+                handler.onCompleteToolExecutionRequest(index, completeToolExecutionRequest);
+            }
+
+            @Override
+            public void onCompleteResponse(ChatResponse completeResponse) {
+                recordUsage(chatRequest, completeResponse);
+                handler.onCompleteResponse(completeResponse);
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                handler.onError(error);
+            }
+        });
+    }
+
+    private void recordUsage(ChatRequest chatRequest, ChatResponse completeResponse) {
+        try {
+            if (completeResponse.tokenUsage() == null) {
+                return;
+            }
+            String modelName = completeResponse.modelName() != null
+                    ? completeResponse.modelName()
+                    : chatRequest.modelName();
+            if (modelName == null) {
+                modelName = delegate.defaultRequestParameters().modelName();
+            }
+            Long userId = generationTaskManager.getTaskUserId(appId);
+            tokenUsageService.recordUsage(appId, userId, modelName, completeResponse.tokenUsage());
+        } catch (Exception e) {
+            // 用量统计失败不影响生成
+            log.warn("记录 token 用量失败: appId={}", appId, e);
+        }
+    }
+
+    @Override
+    public ChatRequestParameters defaultRequestParameters() {
+        return delegate.defaultRequestParameters();
+    }
+
+    @Override
+    public List<ChatModelListener> listeners() {
+        return delegate.listeners();
+    }
+
+    @Override
+    public ModelProvider provider() {
+        return delegate.provider();
+    }
+
+    @Override
+    public Set<Capability> supportedCapabilities() {
+        return delegate.supportedCapabilities();
+    }
+}
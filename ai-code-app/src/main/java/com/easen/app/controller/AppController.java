@@ -8,6 +8,10 @@ import com.easen.app.auth.AppUserAuthManager;
 import com.easen.app.auth.annotation.SaSpaceCheckPermission;
 import com.easen.app.auth.model.AppUserPermissionConstant;
 import com.easen.app.core.AiCodeGeneratorFacade;
+import com.easen.app.core.deploy.DeployJob;
+import com.easen.app.core.deploy.DeployJobManager;
+import com.easen.app.core.hander.StreamChunk;
+import com.easen.app.core.snapshot.ProjectSnapshotManager;
 import com.easen.app.service.AppService;
 import com.easen.client.InnerUserService;
 import com.easen.common.common.BaseResponse;
@@ -21,12 +25,16 @@ import com.easen.common.exception.ThrowUtils;
 import com.easen.model.dto.app.AppAddRequest;
 import com.easen.model.dto.app.AppDeployRequest;
 import com.easen.model.dto.app.AppQueryRequest;
+import com.easen.model.dto.app.AppSnapshotRestoreRequest;
 import com.easen.model.dto.app.AppUpdateRequest;
 import com.easen.model.entity.App;
 import com.easen.model.entity.User;
 import com.easen.model.enums.AppRoleEnum;
 import com.easen.model.enums.AppTypeEnum;
 import com.easen.model.vo.AppVO;
+import com.easen.model.vo.DeployJobVO;
+import com.easen.model.vo.ProjectSnapshotDiffVO;
+import com.easen.model.vo.ProjectSnapshotVO;
 import com.mybatisflex.core.paginate.Page;
 import jakarta.annotation.Resource;
 import jakarta.servlet.http.HttpServletRequest;
@@ -43,6 +51,7 @@ import java.io.File;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 应用 控制层。
@@ -63,6 +72,12 @@ public class AppController {
     @Resource
     private AiCodeGeneratorFacade aiCodeGeneratorFacade;
 
+    @Resource
+    private ProjectSnapshotManager projectSnapshotManager;
+
+    @Resource
+    private DeployJobManager deployJobManager;
+
     /**
      * 应用聊天生成代码（流式 SSE）
      *
@@ -84,14 +99,15 @@ public class AppController {
         // 获取当前登录用户
         User loginUser = InnerUserService.getLoginUser(request);
         //如果是会员调用工作流生成代码
-        Flux<String> contentFlux = appService.chatToGenCode(appId, message, loginUser, image);
-        // 转换为 ServerSentEvent 格式
+        Flux<StreamChunk> contentFlux = appService.chatToGenCode(appId, message, loginUser, image);
+        // 转换为 ServerSentEvent 格式，构建日志等带事件名的片段作为单独的事件发送
         return contentFlux
                 .map(chunk -> {
                     // 将内容包装成JSON对象
-                    Map<String, String> wrapper = Map.of("d", chunk);
+                    Map<String, String> wrapper = Map.of("d", chunk.data());
                     String jsonData = JSONUtil.toJsonStr(wrapper);
                     return ServerSentEvent.<String>builder()
+                            .event(chunk.event())
                             .data(jsonData)
                             .build();
                 })
@@ -131,7 +147,7 @@ public class AppController {
     }
 
     /**
-     * 应用部署
+     * 应用部署（等待部署完成后返回，部署在任务队列中执行，不占用请求线程）
      *
      * @param appDeployRequest 部署请求
      * @param request          请求
@@ -139,16 +155,124 @@ public class AppController {
      */
     @PostMapping("/deploy")
     @SaSpaceCheckPermission(value = AppUserPermissionConstant.APP_DEPLOY)
-    public BaseResponse<String> deployApp(@RequestBody AppDeployRequest appDeployRequest, HttpServletRequest request) {
+    public CompletableFuture<BaseResponse<String>> deployApp(@RequestBody AppDeployRequest appDeployRequest, HttpServletRequest request) {
         ThrowUtils.throwIf(appDeployRequest == null, ErrorCode.PARAMS_ERROR);
         Long appId = appDeployRequest.getAppId();
-        ThrowUtils.throwIf(appId <= 0, ErrorCode.PARAMS_ERROR, "应用 ID 不能为空");
+        ThrowUtils.throwIf(appId == null || appId <= 0, ErrorCode.PARAMS_ERROR, "应用 ID 不能为空");
 
         // 获取当前登录用户
         User loginUser = InnerUserService.getLoginUser(request);
-        // 调用服务部署应用
-        String deployUrl = appService.deployApp(appId, loginUser);
-        return ResultUtils.success(deployUrl);
+        // 提交部署任务，完成后返回部署地址
+        DeployJob job = deployJobManager.submit(appId, loginUser);
+        return job.getResult().thenApply(ResultUtils::success);
+    }
+
+    /**
+     * 提交部署任务（立即返回任务信息，通过 /deploy/progress 订阅进度）
+     *
+     * @param appDeployRequest 部署请求
+     * @param request          请求
+     * @return 部署任务
+     */
+    @PostMapping("/deploy/submit")
+    @SaSpaceCheckPermission(value = AppUserPermissionConstant.APP_DEPLOY)
+    public BaseResponse<DeployJobVO> submitDeployJob(@RequestBody AppDeployRequest appDeployRequest, HttpServletRequest request) {
+        ThrowUtils.throwIf(appDeployRequest == null, ErrorCode.PARAMS_ERROR);
+        Long appId = appDeployRequest.getAppId();
+        ThrowUtils.throwIf(appId == null || appId <= 0, ErrorCode.PARAMS_ERROR, "应用 ID 不能为空");
+        User loginUser = InnerUserService.getLoginUser(request);
+        return ResultUtils.success(deployJobManager.submit(appId, loginUser).toVO());
+    }
+
+    /**
+     * 查询部署任务状态
+     *
+     * @param jobId   任务 ID
+     * @param request 请求
+     * @return 部署任务
+     */
+    @GetMapping("/deploy/job")
+    public BaseResponse<DeployJobVO> getDeployJob(@RequestParam String jobId, HttpServletRequest request) {
+        ThrowUtils.throwIf(StrUtil.isBlank(jobId), ErrorCode.PARAMS_ERROR, "任务 ID 不能为空");
+        User loginUser = InnerUserService.getLoginUser(request);
+        return ResultUtils.success(deployJobManager.getJob(jobId, loginUser).toVO());
+    }
+
+    /**
+     * 订阅部署进度（流式 SSE），每次阶段变化推送一次任务状态，构建日志以 log 事件逐行推送，任务结束后发送结束事件
+     *
+     * @param jobId   任务 ID
+     * @param request 请求
+     * @return 进度流
+     */
+    @GetMapping(value = "/deploy/progress", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> getDeployProgress(@RequestParam String jobId, HttpServletRequest request) {
+        ThrowUtils.throwIf(StrUtil.isBlank(jobId), ErrorCode.PARAMS_ERROR, "任务 ID 不能为空");
+        User loginUser = InnerUserService.getLoginUser(request);
+        DeployJob job = deployJobManager.getJob(jobId, loginUser);
+        Flux<ServerSentEvent<String>> progressEvents = job.progress()
+                .map(deployJobVO -> ServerSentEvent.<String>builder()
+                        .data(JSONUtil.toJsonStr(deployJobVO))
+                        .build());
+        Flux<ServerSentEvent<String>> logEvents = job.logs()
+                .map(line -> ServerSentEvent.<String>builder()
+                        .event("log")
+                        .data(JSONUtil.toJsonStr(Map.of("d", line)))
+                        .build());
+        return Flux.merge(logEvents, progressEvents)
+                .concatWith(Mono.just(
+                        // 发送结束事件
+                        ServerSentEvent.<String>builder()
+                                .event("done")
+                                .data("")
+                                .build()
+                ));
+    }
+
+    /**
+     * 列出应用的项目快照（每次生成完成后自动记录）
+     *
+     * @param appId 应用 ID
+     * @return 按时间倒序的快照列表
+     */
+    @GetMapping("/snapshot/list")
+    @SaSpaceCheckPermission(value = AppUserPermissionConstant.APP_VIEW)
+    public BaseResponse<List<ProjectSnapshotVO>> listSnapshots(@RequestParam Long appId) {
+        ThrowUtils.throwIf(appId == null || appId <= 0, ErrorCode.PARAMS_ERROR, "应用ID无效");
+        return ResultUtils.success(projectSnapshotManager.listSnapshots(appId));
+    }
+
+    /**
+     * 比较两个项目快照的文件差异
+     *
+     * @param appId          应用 ID
+     * @param fromSnapshotId 起始快照 ID
+     * @param toSnapshotId   目标快照 ID
+     * @return 文件差异
+     */
+    @GetMapping("/snapshot/diff")
+    @SaSpaceCheckPermission(value = AppUserPermissionConstant.APP_VIEW)
+    public BaseResponse<ProjectSnapshotDiffVO> diffSnapshots(@RequestParam Long appId,
+                                                             @RequestParam Long fromSnapshotId,
+                                                             @RequestParam Long toSnapshotId) {
+        ThrowUtils.throwIf(appId == null || appId <= 0, ErrorCode.PARAMS_ERROR, "应用ID无效");
+        return ResultUtils.success(projectSnapshotManager.diffSnapshots(appId, fromSnapshotId, toSnapshotId));
+    }
+
+    /**
+     * 把项目恢复到指定快照
+     *
+     * @param restoreRequest 恢复请求
+     * @return 恢复结果
+     */
+    @PostMapping("/snapshot/restore")
+    @SaSpaceCheckPermission(value = AppUserPermissionConstant.APP_EDIT)
+    public BaseResponse<Boolean> restoreSnapshot(@RequestBody AppSnapshotRestoreRequest restoreRequest) {
+        ThrowUtils.throwIf(restoreRequest == null, ErrorCode.PARAMS_ERROR);
+        Long appId = restoreRequest.getAppId();
+        ThrowUtils.throwIf(appId == null || appId <= 0, ErrorCode.PARAMS_ERROR, "应用ID无效");
+        projectSnapshotManager.restoreSnapshot(appId, restoreRequest.getSnapshotId());
+        return ResultUtils.success(true);
     }
 
     /**
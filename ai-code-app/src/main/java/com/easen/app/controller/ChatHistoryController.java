@@ -2,6 +2,7 @@ package com.easen.app.controller;
 
 import cn.dev33.satoken.annotation.SaCheckRole;
 
+import com.easen.app.ai.AiServiceWarmUpManager;
 import com.easen.app.auth.annotation.SaSpaceCheckPermission;
 import com.easen.app.auth.model.AppUserPermissionConstant;
 import com.easen.app.service.ChatHistoryService;
@@ -28,6 +29,9 @@ public class ChatHistoryController {
     @Resource
     private ChatHistoryService chatHistoryService;
 
+    @Resource
+    private AiServiceWarmUpManager aiServiceWarmUpManager;
+
 
     /**
      * 分页查询某个应用的对话历史（游标查询）
@@ -43,6 +47,10 @@ public class ChatHistoryController {
                                                                 @RequestParam(defaultValue = "10") int pageSize,
                                                                 @RequestParam(required = false) LocalDateTime lastCreateTime
     ) {
+        // 打开应用时加载第一页历史，预示用户即将对话，后台预热 AI 服务
+        if (lastCreateTime == null) {
+            aiServiceWarmUpManager.warmUp(appId);
+        }
         Page<ChatHistoryVO> result = chatHistoryService.listAppChatHistoryVOByPage(appId, pageSize, lastCreateTime);
         return ResultUtils.success(result);
     }
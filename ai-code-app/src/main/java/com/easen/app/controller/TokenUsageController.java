@@ -0,0 +1,75 @@
+package com.easen.app.controller;
+
+import cn.dev33.satoken.annotation.SaCheckRole;
+import com.easen.app.auth.annotation.SaSpaceCheckPermission;
+import com.easen.app.auth.model.AppUserPermissionConstant;
+import com.easen.app.service.TokenUsageService;
+import com.easen.client.InnerUserService;
+import com.easen.common.common.BaseResponse;
+import com.easen.common.common.ResultUtils;
+import com.easen.common.constant.UserConstant;
+import com.easen.model.entity.User;
+import com.easen.model.vo.TokenUsageVO;
+import jakarta.annotation.Resource;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Token 用量 控制层。
+ *
+ * @author <a>easen</a>
+ */
+@RestController
+@RequestMapping("/tokenUsage")
+public class TokenUsageController {
+
+    @Resource
+    private TokenUsageService tokenUsageService;
+
+    /**
+     * 查询某个应用最近若干天的 token 用量
+     *
+     * @param appId 应用ID
+     * @param days  天数
+     * @return 按日期倒序的用量列表
+     */
+    @GetMapping("/app")
+    @SaSpaceCheckPermission(value = AppUserPermissionConstant.APP_VIEW)
+    public BaseResponse<List<TokenUsageVO>> listAppTokenUsage(@RequestParam Long appId,
+                                                              @RequestParam(defaultValue = "7") int days) {
+        return ResultUtils.success(tokenUsageService.listAppTokenUsage(appId, days));
+    }
+
+    /**
+     * 查询当前用户最近若干天的 token 用量
+     *
+     * @param days    天数
+     * @param request HTTP请求
+     * @return 按日期倒序的用量列表
+     */
+    @GetMapping("/my")
+    public BaseResponse<List<TokenUsageVO>> listMyTokenUsage(@RequestParam(defaultValue = "7") int days,
+                                                             HttpServletRequest request) {
+        User loginUser = InnerUserService.getLoginUser(request);
+        return ResultUtils.success(tokenUsageService.listUserTokenUsage(loginUser.getId(), days));
+    }
+
+    /**
+     * 管理员查询指定用户最近若干天的 token 用量
+     *
+     * @param userId 用户ID
+     * @param days   天数
+     * @return 按日期倒序的用量列表
+     */
+    @GetMapping("/admin/user")
+    @SaCheckRole(UserConstant.ADMIN_ROLE)
+    public BaseResponse<List<TokenUsageVO>> listUserTokenUsageForAdmin(@RequestParam Long userId,
+                                                                       @RequestParam(defaultValue = "7") int days) {
+        return ResultUtils.success(tokenUsageService.listUserTokenUsage(userId, days));
+    }
+}
@@ -2,13 +2,22 @@ package com.easen.app.core;
 
 import cn.hutool.json.JSONUtil;
 import com.easen.ai.AiCodeGeneratorService;
+import com.easen.ai.artifact.CodeArtifactStore;
 import com.easen.ai.model.message.AiResponseMessage;
+import com.easen.ai.model.message.AiResponseResetMessage;
+import com.easen.ai.model.message.BuildLogMessage;
 import com.easen.ai.model.message.ToolExecutedMessage;
 import com.easen.ai.model.message.ToolRequestMessage;
+import com.easen.ai.tools.ToolMetrics;
+import com.easen.ai.workspace.ProjectWorkspace;
+import com.easen.ai.workspace.ProjectWorkspaceManager;
 import com.easen.app.ai.AiCodeGeneratorServiceFactory;
+import com.easen.app.ai.AppNameGenerator;
+import com.easen.app.core.builder.VueBuildScheduler;
 import com.easen.app.core.builder.VueProjectBuilder;
 import com.easen.app.core.parser.CodeParserExecutor;
 import com.easen.app.core.saver.CodeFileSaverExecutor;
+import com.easen.app.core.snapshot.ProjectSnapshotManager;
 import com.easen.common.constant.AppConstant;
 import com.easen.common.exception.BusinessException;
 import com.easen.common.exception.ErrorCode;
@@ -20,8 +29,10 @@ import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import reactor.core.Disposable;
+import reactor.core.Disposables;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
 
 import java.io.File;
 
@@ -40,6 +51,21 @@ public class AiCodeGeneratorFacade {
 
     @Resource
     private VueProjectBuilder vueProjectBuilder;
+
+    @Resource
+    private CodeArtifactStore codeArtifactStore;
+
+    @Resource
+    private ProjectWorkspaceManager projectWorkspaceManager;
+
+    @Resource
+    private ToolMetrics toolMetrics;
+
+    @Resource
+    private ProjectSnapshotManager projectSnapshotManager;
+
+    @Resource
+    private AppNameGenerator appNameGenerator;
 //
 //    /**
 //     * 统一入口：根据类型生成并保存代码
@@ -90,26 +116,27 @@ public class AiCodeGeneratorFacade {
             throw new BusinessException(ErrorCode.SYSTEM_ERROR, "该应用已有正在进行的生成任务，请等待完成或取消后再试");
         }
         
-        // 根据 appId 获取对应的 AI 服务实例
-        AiCodeGeneratorService aiCodeGeneratorService = aiCodeGeneratorServiceFactory.getAiCodeGeneratorService(appId, codeGenTypeEnum);
-        return switch (codeGenTypeEnum) {
-            case HTML -> {
-                Flux<String> codeStream = aiCodeGeneratorService.generateHtmlCodeStream(userMessage);
-                yield processCodeStream(codeStream, CodeGenTypeEnum.HTML, appId, userId);
-            }
-            case MULTI_FILE -> {
-                Flux<String> codeStream = aiCodeGeneratorService.generateMultiFileCodeStream(userMessage);
-                yield processCodeStream(codeStream, CodeGenTypeEnum.MULTI_FILE, appId, userId);
-            }
-            case VUE_PROJECT -> {
-                TokenStream tokenStream = aiCodeGeneratorService.generateVueProjectCodeStream(appId, userMessage);
-                yield processTokenStream(tokenStream, appId, userId);
-            }
-            default -> {
-                String errorMessage = "不支持的生成类型：" + codeGenTypeEnum.getValue();
-                throw new BusinessException(ErrorCode.SYSTEM_ERROR, errorMessage);
-            }
-        };
+        // 根据 appId 异步获取对应的 AI 服务实例，缓存未命中时不阻塞请求线程
+        return Mono.fromFuture(aiCodeGeneratorServiceFactory.getAiCodeGeneratorServiceAsync(appId, codeGenTypeEnum))
+                .flatMapMany(aiCodeGeneratorService -> switch (codeGenTypeEnum) {
+                    case HTML -> {
+                        // 当前代码由对话记忆在输入护轨校验之后附加，这里只传用户消息
+                        Flux<String> codeStream = aiCodeGeneratorService.generateHtmlCodeStream(userMessage);
+                        yield processCodeStream(codeStream, CodeGenTypeEnum.HTML, appId, userId);
+                    }
+                    case MULTI_FILE -> {
+                        Flux<String> codeStream = aiCodeGeneratorService.generateMultiFileCodeStream(userMessage);
+                        yield processCodeStream(codeStream, CodeGenTypeEnum.MULTI_FILE, appId, userId);
+                    }
+                    case VUE_PROJECT -> {
+                        TokenStream tokenStream = aiCodeGeneratorService.generateVueProjectCodeStream(appId, userMessage);
+                        yield processTokenStream(tokenStream, appId, userId);
+                    }
+                    default -> {
+                        String errorMessage = "不支持的生成类型：" + codeGenTypeEnum.getValue();
+                        throw new BusinessException(ErrorCode.SYSTEM_ERROR, errorMessage);
+                    }
+                });
     }
 
     /**
@@ -149,8 +176,10 @@ public class AiCodeGeneratorFacade {
         StringBuilder partialContentBuilder = new StringBuilder();
         
         return Flux.create((FluxSink<String> sink) -> {
-            // 注册任务到管理器
-            Disposable disposable = codeStream
+            // 先注册任务（传递部分内容收集器）再开始生成，应用正在恢复快照时直接失败
+            Disposable.Swap disposable = Disposables.swap();
+            generationTaskManager.registerTask(appId, codeGenType.getValue(), disposable, sink, userId, partialContentBuilder);
+            disposable.update(codeStream
                     .doOnNext(chunk -> {
                         // 实时收集代码片段
                         codeBuilder.append(chunk);
@@ -162,12 +191,16 @@ public class AiCodeGeneratorFacade {
                     .doOnComplete(() -> {
                         // 流式返回完成后，保存代码
                         try {
-                            String completeCode = codeBuilder.toString();
+                            // 模型偶尔会沿用历史消息中的代码引用，保存前展开为完整代码
+                            String completeCode = codeArtifactStore.expand(codeBuilder.toString());
                             // 使用执行器解析代码
                             Object parsedResult = CodeParserExecutor.executeParser(completeCode, codeGenType);
                             // 使用执行器保存代码
                             File saveDir = CodeFileSaverExecutor.executeSaver(parsedResult, codeGenType, appId);
                             log.info("保存成功，目录为：{}", saveDir.getAbsolutePath());
+                            projectSnapshotManager.createSnapshotAsync(appId, codeGenType);
+                            // 首次生成完成后在后台生成应用名称，部署时无需再等待
+                            appNameGenerator.generateAsync(appId);
                         } catch (Exception e) {
                             log.error("保存失败: {}", e.getMessage());
                         } finally {
@@ -181,10 +214,7 @@ public class AiCodeGeneratorFacade {
                         generationTaskManager.completeTask(appId);
                         sink.error(error);
                     })
-                    .subscribe();
-            
-            // 注册任务，传递部分内容收集器
-            generationTaskManager.registerTask(appId, codeGenType.getValue(), disposable, sink, userId, partialContentBuilder);
+                    .subscribe());
         });
     }
 
@@ -205,31 +235,60 @@ public class AiCodeGeneratorFacade {
             Disposable disposable = Flux.never().subscribe(); // 占位符，实际取消逻辑在TokenStream中
             
             generationTaskManager.registerTask(appId, "VUE_PROJECT", disposable, sink, userId, partialContentBuilder);
-            
+            // 本次生成的文件改动先写入内存工作区，成功后统一落盘，取消或失败时丢弃
+            ProjectWorkspace workspace = projectWorkspaceManager.begin(appId);
+            // 记录本次生成的工具调用耗时，结束时输出汇总
+            toolMetrics.startTrace(appId);
+
+            // 本轮回复在部分内容中的起始位置（上一次工具调用之后），回复重置时回退到这里
+            int[] responseStart = {0};
+
             tokenStream.onPartialResponse((String partialResponse) -> {
                         AiResponseMessage aiResponseMessage = new AiResponseMessage(partialResponse);
                         // 收集部分内容
                         partialContentBuilder.append(partialResponse);
                         sink.next(JSONUtil.toJsonStr(aiResponseMessage));
                     })
+                    .onPartialResponseReset(() -> {
+                        // 输出护轨重试了本轮回复，已推送的部分作废
+                        partialContentBuilder.setLength(responseStart[0]);
+                        sink.next(JSONUtil.toJsonStr(new AiResponseResetMessage()));
+                    })
                     .onPartialToolExecutionRequest((index, toolExecutionRequest) -> {
                         ToolRequestMessage toolRequestMessage = new ToolRequestMessage(toolExecutionRequest);
                         sink.next(JSONUtil.toJsonStr(toolRequestMessage));
                     })
                     .onToolExecuted((ToolExecution toolExecution) -> {
+                        responseStart[0] = partialContentBuilder.length();
                         ToolExecutedMessage toolExecutedMessage = new ToolExecutedMessage(toolExecution);
                         sink.next(JSONUtil.toJsonStr(toolExecutedMessage));
                     })
                     .onCompleteResponse((ChatResponse response) -> {
+                        try {
+                            projectWorkspaceManager.commit(workspace);
+                            toolMetrics.finishTrace(appId, null);
+                        } catch (Exception e) {
+                            log.error("项目文件落盘失败: appId={}", appId, e);
+                            toolMetrics.finishTrace(appId, e);
+                            generationTaskManager.completeTask(appId);
+                            sink.error(new BusinessException(ErrorCode.SYSTEM_ERROR, "项目文件保存失败"));
+                            return;
+                        }
                         // 执行 Vue 项目构建（同步执行，确保预览时项目已就绪）
                         String projectPath = AppConstant.CODE_OUTPUT_ROOT_DIR + "/vue_project_" + appId;
-                        vueProjectBuilder.buildProject(projectPath);
+                        // 构建输出逐行推送给前端，便于查看构建进度
+                        vueProjectBuilder.buildProject(projectPath, VueBuildScheduler.Priority.INTERACTIVE,
+                                line -> sink.next(JSONUtil.toJsonStr(new BuildLogMessage(line))));
+                        projectSnapshotManager.createSnapshotAsync(appId, CodeGenTypeEnum.VUE_PROJECT);
+                        appNameGenerator.generateAsync(appId);
 
                         generationTaskManager.completeTask(appId);
                         sink.complete();
                     })
                     .onError((Throwable error) -> {
                         error.printStackTrace();
+                        projectWorkspaceManager.rollback(workspace);
+                        toolMetrics.finishTrace(appId, error);
                         generationTaskManager.completeTask(appId);
                         sink.error(error);
                     })
@@ -2,8 +2,12 @@ package com.easen.app.core;
 
 import cn.hutool.core.io.FileUtil;
 import cn.hutool.core.util.StrUtil;
+import com.easen.app.core.builder.BuildFingerprintStore;
+import com.easen.app.core.deploy.DeployVersionManager;
+import com.easen.app.core.snapshot.ProjectSnapshotManager;
 import com.easen.common.constant.AppConstant;
 import com.easen.model.entity.App;
+import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
@@ -17,6 +21,15 @@ import java.io.File;
 @Component
 public class AppResourceCleaner {
 
+    @Resource
+    private ProjectSnapshotManager projectSnapshotManager;
+
+    @Resource
+    private DeployVersionManager deployVersionManager;
+
+    @Resource
+    private BuildFingerprintStore buildFingerprintStore;
+
     /**
      * 清理应用的所有相关资源
      *
@@ -42,6 +55,13 @@ public class AppResourceCleaner {
             cleanupDeployDirectory(deployKey);
         }
 
+        // 3. 清理项目快照清单
+        try {
+            projectSnapshotManager.deleteSnapshots(appId);
+        } catch (Exception e) {
+            log.error("清理项目快照失败：appId={}，错误：{}", appId, e.getMessage(), e);
+        }
+
         log.info("应用 {} 的资源清理完成", appId);
     }
 
@@ -69,6 +89,9 @@ public class AppResourceCleaner {
             } else {
                 log.info("代码输出目录不存在，无需清理：{}", codeOutputPath);
             }
+            // 恢复过快照的项目目录是指向版本目录的符号链接，版本目录一并删除
+            FileUtil.del(ProjectSnapshotManager.getVersionsDir(codeOutputDir.toPath()));
+            buildFingerprintStore.delete(codeOutputDir.toPath());
         } catch (Exception e) {
             log.error("清理代码输出目录失败：{}，错误：{}", codeOutputPath, e.getMessage(), e);
         }
@@ -85,17 +108,12 @@ public class AppResourceCleaner {
             return;
         }
 
-        // 构建部署目录路径：{deployKey}
+        // 构建部署目录路径：{deployKey}（指向当前版本的链接）以及 .versions/{deployKey} 下的所有版本
         String deployPath = AppConstant.CODE_DEPLOY_ROOT_DIR + File.separator + deployKey;
 
         try {
-            File deployDir = new File(deployPath);
-            if (deployDir.exists()) {
-                FileUtil.del(deployDir);
-                log.info("成功清理部署目录：{}", deployPath);
-            } else {
-                log.info("部署目录不存在，无需清理：{}", deployPath);
-            }
+            deployVersionManager.deleteDeployment(deployKey);
+            log.info("成功清理部署目录：{}", deployPath);
         } catch (Exception e) {
             log.error("清理部署目录失败：{}，错误：{}", deployPath, e.getMessage(), e);
         }
@@ -0,0 +1,55 @@
+package com.easen.app.core;
+
+import com.easen.common.manager.BlobManager;
+import com.easen.common.manager.BlobRootProvider;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 内容寻址存储回收器
+ * 定期标记-清除：收集快照清单等引用方仍在使用的摘要，回收其余超过宽限期的存储对象。
+ * 删除应用、清理旧快照和旧部署版本只删除引用方，对应的存储对象在下一次回收时释放
+ */
+@Slf4j
+@Component
+public class BlobGarbageCollector {
+
+    @Resource
+    private BlobManager blobManager;
+
+    @Autowired
+    private List<BlobRootProvider> blobRootProviders;
+
+    /**
+     * 宽限期（天），期间写入或被再次保存过的对象不回收
+     * 对话中的代码产物引用没有登记为根，超过宽限期未再使用后会被回收，展开时保留引用原文
+     */
+    @Value("${ai.blob.gc.min-idle-days:30}")
+    private int minIdleDays;
+
+    @Scheduled(initialDelayString = "${ai.blob.gc.initial-delay-ms:600000}",
+            fixedDelayString = "${ai.blob.gc.interval-ms:21600000}")
+    public void collect() {
+        long start = System.currentTimeMillis();
+        try {
+            Set<String> roots = new HashSet<>();
+            for (BlobRootProvider provider : blobRootProviders) {
+                provider.collectBlobRoots(roots);
+            }
+            int deleted = blobManager.sweep(roots, Duration.ofDays(minIdleDays));
+            log.info("内容存储回收完成: 根对象数={}, 回收对象数={}, 耗时={}ms",
+                    roots.size(), deleted, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("内容存储回收失败: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.easen.app.core;
 
+import com.easen.ai.workspace.ProjectWorkspaceManager;
 import com.easen.app.service.ChatHistoryService;
+import com.easen.common.exception.ErrorCode;
+import com.easen.common.exception.ThrowUtils;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
@@ -8,6 +11,7 @@ import reactor.core.Disposable;
 import reactor.core.publisher.FluxSink;
 
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -21,12 +25,20 @@ public class GenerationTaskManager {
     @Resource
     private ChatHistoryService chatHistoryService;
 
+    @Resource
+    private ProjectWorkspaceManager projectWorkspaceManager;
+
     /**
      * 存储正在进行的生成任务
      * key: appId, value: 任务信息
      */
     private final Map<Long, GenerationTask> activeTasks = new ConcurrentHashMap<>();
 
+    /**
+     * 正在被独占操作（例如恢复快照）改写项目目录的应用，期间不能开始新的生成任务
+     */
+    private final Set<Long> exclusiveApps = ConcurrentHashMap.newKeySet();
+
     /**
      * 注册新的生成任务
      *
@@ -37,7 +49,8 @@ public class GenerationTaskManager {
      * @param userId 用户ID
      * @param partialContent 部分生成内容的收集器
      */
-    public void registerTask(Long appId, String taskType, Disposable disposable, FluxSink<String> sink, Long userId, StringBuilder partialContent) {
+    public synchronized void registerTask(Long appId, String taskType, Disposable disposable, FluxSink<String> sink, Long userId, StringBuilder partialContent) {
+        ThrowUtils.throwIf(exclusiveApps.contains(appId), ErrorCode.OPERATION_ERROR, "应用正在恢复快照，请稍后再试");
         GenerationTask task = new GenerationTask(appId, taskType, disposable, sink, userId, partialContent);
         activeTasks.put(appId, task);
         log.info("注册生成任务: appId={}, taskType={}, userId={}", appId, taskType, userId);
@@ -69,6 +82,8 @@ public class GenerationTaskManager {
                 if (task.disposable != null && !task.disposable.isDisposed()) {
                     task.disposable.dispose();
                 }
+                // 丢弃本次生成尚未落盘的文件改动，项目保持生成前的状态
+                projectWorkspaceManager.rollback(appId);
                 // 更新聊天记录状态为手动中断（状态值1）
                 chatHistoryService.updateChatHistoryStatus(appId, userId, 1);
                 
@@ -102,7 +117,29 @@ public class GenerationTaskManager {
      * @return 是否有正在进行的任务
      */
     public boolean hasActiveTask(Long appId) {
-        return activeTasks.containsKey(appId);
+        return activeTasks.containsKey(appId) || exclusiveApps.contains(appId);
+    }
+
+    /**
+     * 开始独占操作，期间不能注册新的生成任务
+     *
+     * @param appId 应用ID
+     * @return 是否成功，已有正在进行的生成任务或独占操作时返回 false
+     */
+    public synchronized boolean tryBeginExclusive(Long appId) {
+        if (activeTasks.containsKey(appId)) {
+            return false;
+        }
+        return exclusiveApps.add(appId);
+    }
+
+    /**
+     * 结束独占操作
+     *
+     * @param appId 应用ID
+     */
+    public void endExclusive(Long appId) {
+        exclusiveApps.remove(appId);
     }
 
     /**
@@ -0,0 +1,187 @@
+package com.easen.app.core.builder;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import cn.hutool.json.JSONUtil;
+import com.easen.common.constant.AppConstant;
+import com.easen.common.manager.BlobManager;
+import jakarta.annotation.Resource;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 构建指纹存储
+ * 每个项目在 {构建元数据目录}/{项目目录名}.json 中记录上次成功安装时的依赖清单指纹和上次成功构建时的源码指纹，
+ * 指纹相同说明输入没有变化，可以直接沿用已有的 node_modules 和 dist。
+ * 源码指纹按文件内容计算，文件的大小、修改时间和 inode 未变时复用上次的摘要，不重复读取文件
+ * （生成的代码由 {@link com.easen.common.manager.BlobManager#writeFile} 写临时文件后原子替换，内容变化时 inode 一定改变）
+ */
+@Slf4j
+@Component
+public class BuildFingerprintStore {
+
+    /**
+     * 不属于构建输入的目录
+     */
+    private static final Set<String> EXCLUDED_DIRS = Set.of("node_modules", "dist", ".git");
+
+    @Resource
+    private BlobManager blobManager;
+
+    /**
+     * 计算依赖清单指纹（package.json 和 package-lock.json）
+     *
+     * @param projectDir 项目目录
+     * @return 指纹
+     */
+    public String computeInstallFingerprint(Path projectDir) throws IOException {
+        StringBuilder builder = new StringBuilder();
+        for (String name : new String[]{"package.json", "package-lock.json"}) {
+            Path file = projectDir.resolve(name);
+            builder.append(name).append('=')
+                    .append(Files.isRegularFile(file) ? blobManager.digest(file) : "")
+                    .append('\n');
+        }
+        return DigestUtil.sha256Hex(builder.toString());
+    }
+
+    /**
+     * 计算源码指纹（项目中除依赖和构建产物外的所有文件）
+     *
+     * @param projectDir 项目目录
+     * @return 指纹
+     */
+    public String computeSourceFingerprint(Path projectDir) throws IOException {
+        BuildMeta meta = read(projectDir);
+        Map<String, String> previousStamps = meta.getFileStamps() == null ? Map.of() : meta.getFileStamps();
+        Map<String, String> stamps = new TreeMap<>();
+        // 项目目录可能是指向当前版本的符号链接，从实际目录开始遍历
+        Path root = projectDir.toRealPath();
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                return !dir.equals(root) && EXCLUDED_DIRS.contains(dir.getFileName().toString())
+                        ? FileVisitResult.SKIP_SUBTREE
+                        : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (attrs.isRegularFile()) {
+                    String relativePath = root.relativize(file).toString().replace('\\', '/');
+                    String stamp = attrs.size() + ":" + attrs.lastModifiedTime().toMillis() + ":" + attrs.fileKey();
+                    String previous = previousStamps.get(relativePath);
+                    String digest = previous != null && previous.startsWith(stamp + "|")
+                            ? previous.substring(stamp.length() + 1)
+                            : blobManager.digest(file);
+                    stamps.put(relativePath, stamp + "|" + digest);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        StringBuilder builder = new StringBuilder();
+        stamps.forEach((path, stamp) ->
+                builder.append(path).append('=').append(stamp.substring(stamp.indexOf('|') + 1)).append('\n'));
+        meta.setFileStamps(stamps);
+        write(projectDir, meta);
+        return DigestUtil.sha256Hex(builder.toString());
+    }
+
+    /**
+     * 依赖是否已按当前清单安装
+     */
+    public boolean isInstalled(Path projectDir, String installFingerprint) {
+        return installFingerprint.equals(read(projectDir).getInstallFingerprint())
+                && Files.isDirectory(projectDir.resolve("node_modules"));
+    }
+
+    /**
+     * 构建产物是否对应当前源码
+     */
+    public boolean isBuilt(Path projectDir, String sourceFingerprint) {
+        return sourceFingerprint.equals(read(projectDir).getSourceFingerprint())
+                && Files.isDirectory(projectDir.resolve("dist"));
+    }
+
+    /**
+     * 记录安装成功
+     */
+    public void markInstalled(Path projectDir, String installFingerprint) {
+        BuildMeta meta = read(projectDir);
+        meta.setInstallFingerprint(installFingerprint);
+        write(projectDir, meta);
+    }
+
+    /**
+     * 记录构建成功
+     */
+    public void markBuilt(Path projectDir, String sourceFingerprint) {
+        BuildMeta meta = read(projectDir);
+        meta.setSourceFingerprint(sourceFingerprint);
+        write(projectDir, meta);
+    }
+
+    /**
+     * 清除项目的构建记录，下次构建时完整执行
+     */
+    public void delete(Path projectDir) {
+        FileUtil.del(getMetaFile(projectDir));
+    }
+
+    private BuildMeta read(Path projectDir) {
+        Path metaFile = getMetaFile(projectDir);
+        if (!Files.isRegularFile(metaFile)) {
+            return new BuildMeta();
+        }
+        try {
+            return JSONUtil.toBean(Files.readString(metaFile, StandardCharsets.UTF_8), BuildMeta.class);
+        } catch (Exception e) {
+            log.warn("读取构建记录失败，按未构建处理: {}, 错误: {}", metaFile, e.getMessage());
+            return new BuildMeta();
+        }
+    }
+
+    private void write(Path projectDir, BuildMeta meta) {
+        FileUtil.writeUtf8String(JSONUtil.toJsonStr(meta), getMetaFile(projectDir).toFile());
+    }
+
+    private static Path getMetaFile(Path projectDir) {
+        return Paths.get(AppConstant.CODE_BUILD_META_ROOT_DIR, projectDir.getFileName() + ".json");
+    }
+
+    /**
+     * 构建记录
+     */
+    @Data
+    public static class BuildMeta {
+
+        /**
+         * 上次成功安装时的依赖清单指纹
+         */
+        private String installFingerprint;
+
+        /**
+         * 上次成功构建时的源码指纹
+         */
+        private String sourceFingerprint;
+
+        /**
+         * 相对路径 -> "大小:修改时间:inode|内容摘要"
+         */
+        private Map<String, String> fileStamps = new HashMap<>();
+    }
+}
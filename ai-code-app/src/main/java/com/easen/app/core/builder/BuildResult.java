@@ -0,0 +1,37 @@
+package com.easen.app.core.builder;
+
+import java.util.List;
+
+/**
+ * Vue 项目构建结果
+ *
+ * @param success 是否成功
+ * @param message 结果说明
+ * @param logTail 构建输出的最后若干行
+ */
+public record BuildResult(boolean success, String message, List<String> logTail) {
+
+    /**
+     * 失败说明中附带的日志行数
+     */
+    private static final int DESCRIBE_LINES = 20;
+
+    public static BuildResult success(String message) {
+        return new BuildResult(true, message, List.of());
+    }
+
+    public static BuildResult failure(String message, List<String> logTail) {
+        return new BuildResult(false, message, logTail == null ? List.of() : logTail);
+    }
+
+    /**
+     * 结果说明，失败时附带日志末尾，便于用户定位原因
+     */
+    public String describe() {
+        if (success || logTail.isEmpty()) {
+            return message;
+        }
+        List<String> lines = logTail.subList(Math.max(0, logTail.size() - DESCRIBE_LINES), logTail.size());
+        return message + "\n" + String.join("\n", lines);
+    }
+}
@@ -0,0 +1,273 @@
+package com.easen.app.core.builder;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import com.easen.common.constant.AppConstant;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * 共享依赖存储
+ * 按 package.json 中声明的依赖（及 package-lock.json）计算摘要，相同依赖只在 {存储目录}/{摘要} 下安装一次，
+ * 项目中的 node_modules 是指向存储的符号链接。生成的项目几乎都使用同一组依赖，
+ * 因此绝大多数构建只需建立一个链接，不需要联网，也不额外占用磁盘
+ */
+@Slf4j
+@Component
+public class NodeModulesStore {
+
+    private static final String NODE_MODULES = "node_modules";
+
+    private static final String PACKAGE_JSON = "package.json";
+
+    private static final String PACKAGE_LOCK_JSON = "package-lock.json";
+
+    /**
+     * 预热使用的依赖（与代码生成提示词中的 package.json 参考保持一致）
+     */
+    private static final String TEMPLATE_PACKAGE_JSON = """
+            {
+              "dependencies": {
+                "vue": "^3.3.4",
+                "vue-router": "^4.2.4"
+              },
+              "devDependencies": {
+                "@vitejs/plugin-vue": "^4.2.3",
+                "vite": "^4.4.5"
+              }
+            }
+            """;
+
+    @Resource
+    private NpmCommandExecutor npmCommandExecutor;
+
+    @Value("${ai.node-modules.prewarm:true}")
+    private boolean prewarm;
+
+    @Value("${ai.node-modules.max-idle-days:14}")
+    private int maxIdleDays;
+
+    private final Path rootDir = Paths.get(AppConstant.CODE_NODE_MODULES_ROOT_DIR);
+
+    /**
+     * 同一组依赖只安装一次，其余构建等待安装完成后直接链接
+     */
+    private final Map<String, ReentrantLock> installLocks = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        Thread.ofVirtual().name("node-modules-store-init").start(() -> {
+            pruneIdleEntries();
+            if (prewarm) {
+                String key = computeKey(JSONUtil.parseObj(TEMPLATE_PACKAGE_JSON), null);
+                if (ensureInstalled(key, TEMPLATE_PACKAGE_JSON, null, null) != null) {
+                    log.info("依赖存储预热完成: key={}", key);
+                }
+            }
+        });
+    }
+
+    /**
+     * 为项目准备依赖：存储中已有相同依赖时直接链接，否则先安装到存储再链接
+     *
+     * @param projectDir     项目目录
+     * @param outputListener 安装输出回调，可为 null
+     * @return 是否成功，失败时调用方应退回在项目目录中直接安装
+     */
+    public boolean link(File projectDir, Consumer<String> outputListener) {
+        try {
+            Path projectPath = projectDir.toPath();
+            String packageJson = Files.readString(projectPath.resolve(PACKAGE_JSON), StandardCharsets.UTF_8);
+            Path lockFile = projectPath.resolve(PACKAGE_LOCK_JSON);
+            String packageLock = Files.isRegularFile(lockFile) ? Files.readString(lockFile, StandardCharsets.UTF_8) : null;
+            String key = computeKey(JSONUtil.parseObj(packageJson), packageLock);
+            long start = System.currentTimeMillis();
+            Path entryDir = ensureInstalled(key, packageJson, packageLock, outputListener);
+            if (entryDir == null) {
+                return false;
+            }
+            linkNodeModules(projectPath.resolve(NODE_MODULES), entryDir.resolve(NODE_MODULES));
+            log.info("项目依赖已链接: {} -> {}, 耗时={}ms", projectDir.getName(), key, System.currentTimeMillis() - start);
+            return true;
+        } catch (Exception e) {
+            log.warn("链接共享依赖失败，改为在项目中安装: {}, 错误: {}", projectDir.getName(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 跳过安装时记录项目当前链接的存储条目被使用，避免仍被项目链接的条目被当作长时间未使用而清理
+     *
+     * @param projectDir 项目目录
+     */
+    public void touchLinked(File projectDir) {
+        Path link = projectDir.toPath().resolve(NODE_MODULES);
+        if (!Files.isSymbolicLink(link)) {
+            return;
+        }
+        try {
+            Path entryDir = Files.readSymbolicLink(link).getParent();
+            if (entryDir != null && entryDir.startsWith(rootDir.toAbsolutePath()) && Files.isDirectory(entryDir)) {
+                touch(entryDir);
+            }
+        } catch (IOException e) {
+            log.debug("读取依赖链接失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 依赖摘要：只取 dependencies 和 devDependencies（按名称排序），脚本、名称等字段不影响安装结果
+     */
+    private static String computeKey(JSONObject packageJson, String packageLock) {
+        StringBuilder builder = new StringBuilder();
+        for (String field : new String[]{"dependencies", "devDependencies"}) {
+            JSONObject deps = packageJson.getJSONObject(field);
+            builder.append(field).append('=')
+                    .append(JSONUtil.toJsonStr(deps == null ? Map.of() : new TreeMap<>(deps)))
+                    .append('\n');
+        }
+        if (packageLock != null) {
+            builder.append("lock=").append(DigestUtil.sha256Hex(packageLock));
+        }
+        return DigestUtil.sha256Hex(builder.toString());
+    }
+
+    /**
+     * 确保存储中已安装该组依赖
+     *
+     * @return 存储条目目录，安装失败时返回 null
+     */
+    private Path ensureInstalled(String key, String packageJson, String packageLock, Consumer<String> outputListener) {
+        Path entryDir = rootDir.resolve(key);
+        if (Files.isDirectory(entryDir.resolve(NODE_MODULES))) {
+            touch(entryDir);
+            return entryDir;
+        }
+        ReentrantLock lock = installLocks.computeIfAbsent(key, k -> new ReentrantLock());
+        lock.lock();
+        try {
+            if (Files.isDirectory(entryDir.resolve(NODE_MODULES))) {
+                touch(entryDir);
+                return entryDir;
+            }
+            return install(key, entryDir, packageJson, packageLock, outputListener);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 在暂存目录中安装，成功后整体重命名为存储条目，其他进程或线程不会看到安装到一半的依赖
+     */
+    private Path install(String key, Path entryDir, String packageJson, String packageLock,
+                         Consumer<String> outputListener) {
+        long start = System.currentTimeMillis();
+        Path stagingDir = rootDir.resolve(".staging_" + IdUtil.fastSimpleUUID());
+        try {
+            Files.createDirectories(stagingDir);
+            JSONObject source = JSONUtil.parseObj(packageJson);
+            JSONObject manifest = new JSONObject();
+            manifest.set("name", "node-modules-store");
+            manifest.set("private", true);
+            manifest.set("dependencies", source.getJSONObject("dependencies"));
+            manifest.set("devDependencies", source.getJSONObject("devDependencies"));
+            Files.writeString(stagingDir.resolve(PACKAGE_JSON), manifest.toStringPretty(), StandardCharsets.UTF_8);
+            if (packageLock != null) {
+                Files.writeString(stagingDir.resolve(PACKAGE_LOCK_JSON), packageLock, StandardCharsets.UTF_8);
+            }
+            // 优先使用本地缓存，已下载过的包无需联网
+            boolean success = npmCommandExecutor.execute(stagingDir.toFile(), 300, outputListener,
+                    "install", "--prefer-offline", "--no-audit", "--no-fund",
+                    "--cache", rootDir.resolve(".npm-cache").toAbsolutePath().toString()).success();
+            if (!success || !Files.isDirectory(stagingDir.resolve(NODE_MODULES))) {
+                log.error("安装共享依赖失败: key={}", key);
+                return null;
+            }
+            Files.move(stagingDir, entryDir, StandardCopyOption.ATOMIC_MOVE);
+            log.info("共享依赖已安装: key={}, 耗时={}ms", key, System.currentTimeMillis() - start);
+            return entryDir;
+        } catch (IOException e) {
+            log.error("安装共享依赖失败: key={}, 错误: {}", key, e.getMessage());
+            return null;
+        } finally {
+            FileUtil.del(stagingDir);
+        }
+    }
+
+    /**
+     * 把项目的 node_modules 替换为指向存储的符号链接：先建临时链接，再原子重命名覆盖
+     */
+    private void linkNodeModules(Path link, Path target) throws IOException {
+        Path absoluteTarget = target.toAbsolutePath();
+        if (Files.isSymbolicLink(link) && Files.readSymbolicLink(link).equals(absoluteTarget)) {
+            return;
+        }
+        if (Files.isDirectory(link) && !Files.isSymbolicLink(link)) {
+            // 之前在项目中直接安装的依赖，改用共享存储后不再需要
+            FileUtil.del(link);
+        }
+        Path tempLink = link.resolveSibling("." + NODE_MODULES + "." + IdUtil.fastSimpleUUID() + ".link");
+        try {
+            Files.createSymbolicLink(tempLink, absoluteTarget);
+            Files.move(tempLink, link, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (UnsupportedOperationException e) {
+            throw new IOException("当前环境不支持符号链接", e);
+        } finally {
+            Files.deleteIfExists(tempLink);
+        }
+    }
+
+    /**
+     * 清理长时间未使用的存储条目和中断遗留的暂存目录
+     */
+    private void pruneIdleEntries() {
+        File[] entries = rootDir.toFile().listFiles(File::isDirectory);
+        if (entries == null) {
+            return;
+        }
+        Instant deadline = Instant.now().minus(Duration.ofDays(maxIdleDays));
+        for (File entry : entries) {
+            String name = entry.getName();
+            if (name.equals(".npm-cache")) {
+                continue;
+            }
+            if (name.startsWith(".staging_") || Instant.ofEpochMilli(entry.lastModified()).isBefore(deadline)) {
+                FileUtil.del(entry);
+                log.info("清理共享依赖: {}", name);
+            }
+        }
+    }
+
+    /**
+     * 记录最近使用时间，用于清理
+     */
+    private void touch(Path entryDir) {
+        try {
+            Files.setLastModifiedTime(entryDir, FileTime.from(Instant.now()));
+        } catch (IOException e) {
+            log.debug("更新共享依赖使用时间失败: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.easen.app.core.builder;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * npm 命令执行器
+ * 标准输出和错误输出合并后由虚拟线程持续读取，避免输出填满管道缓冲区导致进程阻塞；
+ * 每一行实时转发给调用方，同时保留最后若干行用于失败提示
+ */
+@Slf4j
+@Component
+public class NpmCommandExecutor {
+
+    /**
+     * 保留的输出行数
+     */
+    private static final int TAIL_LINES = 50;
+
+    /**
+     * 单行最大长度，超出部分截断
+     */
+    private static final int MAX_LINE_LENGTH = 500;
+
+    /**
+     * 命令执行结果
+     *
+     * @param success 是否成功
+     * @param tail    输出的最后若干行
+     */
+    public record CommandResult(boolean success, List<String> tail) {
+    }
+
+    /**
+     * 在指定目录执行 npm 命令
+     *
+     * @param workingDir     工作目录
+     * @param timeoutSeconds 超时时间（秒）
+     * @param outputListener 输出行回调，可为 null
+     * @param args           npm 参数
+     * @return 执行结果
+     */
+    public CommandResult execute(File workingDir, int timeoutSeconds, Consumer<String> outputListener, String... args) {
+        List<String> command = new ArrayList<>(args.length + 1);
+        command.add(buildCommand("npm"));
+        command.addAll(List.of(args));
+        return executeCommand(workingDir, command, timeoutSeconds, outputListener);
+    }
+
+    /**
+     * 根据操作系统构造命令
+     *
+     * @param baseCommand
+     * @return
+     */
+    private String buildCommand(String baseCommand) {
+        if (isWindows()) {
+            return baseCommand + ".cmd";
+        }
+        return baseCommand;
+    }
+
+    /**
+     * 操作系统检测
+     *
+     * @return
+     */
+    private boolean isWindows() {
+        return System.getProperty("os.name").toLowerCase().contains("windows");
+    }
+
+    /**
+     * 执行命令
+     *
+     * @param workingDir     工作目录
+     * @param command        命令
+     * @param timeoutSeconds 超时时间（秒）
+     * @param outputListener 输出行回调
+     * @return 执行结果
+     */
+    private CommandResult executeCommand(File workingDir, List<String> command, int timeoutSeconds,
+                                         Consumer<String> outputListener) {
+        String commandLine = String.join(" ", command);
+        Deque<String> tail = new ArrayDeque<>(TAIL_LINES);
+        // 在 try 之外声明，中断或异常退出时同样能终止进程
+        Process process = null;
+        try {
+            log.info("在目录 {} 中执行命令: {}", workingDir.getAbsolutePath(), commandLine);
+            Process started = new ProcessBuilder(command)
+                    .directory(workingDir)
+                    .redirectErrorStream(true)
+                    .start();
+            process = started;
+            // 进程输入不需要，直接关闭，避免命令等待输入
+            process.getOutputStream().close();
+            Thread drainer = Thread.ofVirtual().name("npm-output-" + process.pid())
+                    .start(() -> drainOutput(started, tail, outputListener));
+            // 等待进程完成，设置超时
+            boolean finished = process.waitFor(timeoutSeconds, TimeUnit.SECONDS);
+            if (!finished) {
+                log.error("命令执行超时（{}秒），强制终止进程", timeoutSeconds);
+                destroyProcessTree(process);
+                drainer.join(TimeUnit.SECONDS.toMillis(5));
+                appendTail(tail, "命令执行超时（" + timeoutSeconds + "秒），已终止");
+                return new CommandResult(false, snapshot(tail));
+            }
+            // 进程结束后输出可能还没读完，等读取线程结束再返回
+            drainer.join(TimeUnit.SECONDS.toMillis(5));
+            int exitCode = process.exitValue();
+            if (exitCode == 0) {
+                log.info("命令执行成功: {}", commandLine);
+                return new CommandResult(true, snapshot(tail));
+            } else {
+                log.error("命令执行失败，退出码: {}", exitCode);
+                appendTail(tail, "命令执行失败，退出码: " + exitCode);
+                return new CommandResult(false, snapshot(tail));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("等待命令执行时被中断，终止进程: {}", commandLine);
+            destroyProcessTree(process);
+            return new CommandResult(false, snapshot(tail));
+        } catch (Exception e) {
+            log.error("执行命令失败: {}, 错误信息: {}", commandLine, e.getMessage());
+            destroyProcessTree(process);
+            appendTail(tail, "执行命令失败: " + e.getMessage());
+            return new CommandResult(false, snapshot(tail));
+        }
+    }
+
+    /**
+     * 强制终止进程及其全部子进程
+     * npm 会派生 node、esbuild 等子进程，只终止 npm 本身时子进程会继续运行并占用输出管道；
+     * 需要在终止父进程前获取子进程列表，父进程退出后子进程会被重新挂到 init 下而无法再找到
+     */
+    private void destroyProcessTree(Process process) {
+        if (process == null) {
+            return;
+        }
+        List<ProcessHandle> descendants = process.descendants().toList();
+        process.destroyForcibly();
+        for (ProcessHandle descendant : descendants) {
+            descendant.destroyForcibly();
+        }
+    }
+
+    private void drainOutput(Process process, Deque<String> tail, Consumer<String> outputListener) {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.length() > MAX_LINE_LENGTH) {
+                    line = line.substring(0, MAX_LINE_LENGTH) + "...";
+                }
+                appendTail(tail, line);
+                if (outputListener != null) {
+                    try {
+                        outputListener.accept(line);
+                    } catch (Exception e) {
+                        log.debug("转发命令输出失败: {}", e.getMessage());
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // 进程被强制终止时流会被关闭
+            log.debug("读取命令输出结束: {}", e.getMessage());
+        }
+    }
+
+    private static void appendTail(Deque<String> tail, String line) {
+        synchronized (tail) {
+            if (tail.size() == TAIL_LINES) {
+                tail.removeFirst();
+            }
+            tail.addLast(line);
+        }
+    }
+
+    private static List<String> snapshot(Deque<String> tail) {
+        synchronized (tail) {
+            return List.copyOf(tail);
+        }
+    }
+}
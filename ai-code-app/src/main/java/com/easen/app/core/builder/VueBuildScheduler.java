@@ -0,0 +1,233 @@
+package com.easen.app.core.builder;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Vue 项目构建调度器
+ * 构建任务进入优先级队列，由固定数量的工作线程执行，避免同时启动过多 npm 进程；
+ * 预览构建优先于部署构建。同一项目已在排队的构建会被合并，同一项目不会同时执行两个构建
+ */
+@Slf4j
+@Component
+public class VueBuildScheduler {
+
+    /**
+     * 构建优先级，数值越小越先执行
+     */
+    public enum Priority {
+        /**
+         * 预览构建（生成完成、快照恢复），用户正在等待
+         */
+        INTERACTIVE,
+        /**
+         * 部署构建
+         */
+        DEPLOY
+    }
+
+    private final PriorityBlockingQueue<BuildTask> queue = new PriorityBlockingQueue<>(16,
+            Comparator.comparing((BuildTask task) -> task.priority).thenComparingLong(task -> task.sequence));
+
+    /**
+     * key: 项目路径，尚未开始执行的构建（在队列中或等待同项目的构建结束）
+     */
+    private final Map<String, BuildTask> pendingTasks = new HashMap<>();
+
+    /**
+     * key: 项目路径，正在执行的构建
+     */
+    private final Map<String, BuildTask> runningTasks = new HashMap<>();
+
+    /**
+     * key: 项目路径，因同项目构建正在执行而推迟的任务
+     */
+    private final Map<String, BuildTask> deferredTasks = new HashMap<>();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final MeterRegistry meterRegistry;
+
+    private final Counter coalescedCounter;
+
+    public VueBuildScheduler(MeterRegistry meterRegistry,
+                             @Value("${ai.vue-build.max-concurrent:2}") int workers) {
+        this.meterRegistry = meterRegistry;
+        this.coalescedCounter = meterRegistry.counter("vue.build.coalesced");
+        Gauge.builder("vue.build.queue.size", queue, PriorityBlockingQueue::size).register(meterRegistry);
+        Gauge.builder("vue.build.running", this, scheduler -> scheduler.getRunningCount()).register(meterRegistry);
+        for (int i = 0; i < workers; i++) {
+            Thread.ofVirtual().name("vue-build-worker-" + i).start(this::workLoop);
+        }
+        log.info("Vue 构建调度器已启动，工作线程数: {}", workers);
+    }
+
+    /**
+     * 提交构建任务
+     *
+     * @param projectPath 项目路径
+     * @param priority    优先级
+     * @param logListener 构建输出回调，可为 null；合并的构建会把输出转发给所有提交者
+     * @param build       实际的构建过程，参数为构建输出回调
+     * @return 构建结果，同一项目已有排队中的构建时返回该构建的结果
+     */
+    public CompletableFuture<BuildResult> submit(String projectPath, Priority priority, Consumer<String> logListener,
+                                                 Function<Consumer<String>, BuildResult> build) {
+        String key = Paths.get(projectPath).toAbsolutePath().normalize().toString();
+        synchronized (this) {
+            BuildTask pending = pendingTasks.get(key);
+            if (pending != null) {
+                coalescedCounter.increment();
+                pending.addListener(logListener);
+                if (priority.compareTo(pending.priority) < 0) {
+                    // 提升已排队任务的优先级，需重新入队才能调整顺序
+                    if (queue.remove(pending)) {
+                        pending.priority = priority;
+                        queue.add(pending);
+                    } else {
+                        pending.priority = priority;
+                    }
+                }
+                return pending.result;
+            }
+            BuildTask task = new BuildTask(key, priority, sequence.incrementAndGet(), build);
+            task.addListener(logListener);
+            pendingTasks.put(key, task);
+            queue.add(task);
+            return task.result;
+        }
+    }
+
+    /**
+     * 当前排队的构建数
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * 当前执行中的构建数
+     */
+    public synchronized int getRunningCount() {
+        return runningTasks.size();
+    }
+
+    private void workLoop() {
+        while (true) {
+            BuildTask task;
+            try {
+                task = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            synchronized (this) {
+                if (runningTasks.containsKey(task.key)) {
+                    // 同一项目的构建正在执行，等它结束后再执行（期间的新请求会合并到这个任务）
+                    deferredTasks.put(task.key, task);
+                    continue;
+                }
+                pendingTasks.remove(task.key, task);
+                runningTasks.put(task.key, task);
+            }
+            run(task);
+        }
+    }
+
+    private void run(BuildTask task) {
+        String priorityTag = task.priority.name().toLowerCase();
+        long waitNanos = System.nanoTime() - task.submitNanos;
+        Timer.builder("vue.build.wait").tag("priority", priorityTag).register(meterRegistry)
+                .record(waitNanos, TimeUnit.NANOSECONDS);
+        long start = System.nanoTime();
+        BuildResult result = null;
+        try {
+            result = task.build.apply(task::publish);
+        } catch (Exception e) {
+            log.error("构建 Vue 项目时发生异常: {}", e.getMessage(), e);
+        } finally {
+            if (result == null) {
+                result = BuildResult.failure("构建 Vue 项目时发生异常", null);
+            }
+            boolean success = result.success();
+            Timer.builder("vue.build.duration")
+                    .tag("priority", priorityTag)
+                    .tag("outcome", success ? "success" : "failure")
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            synchronized (this) {
+                runningTasks.remove(task.key, task);
+                BuildTask deferred = deferredTasks.remove(task.key);
+                if (deferred != null) {
+                    queue.add(deferred);
+                }
+            }
+            log.info("Vue 项目构建结束: {}, 优先级={}, 排队={}ms, 结果={}", task.key, priorityTag,
+                    TimeUnit.NANOSECONDS.toMillis(waitNanos), success);
+            task.result.complete(result);
+        }
+    }
+
+    /**
+     * 构建任务
+     */
+    private static final class BuildTask {
+
+        private final String key;
+
+        private volatile Priority priority;
+
+        private final long sequence;
+
+        private final long submitNanos = System.nanoTime();
+
+        private final Function<Consumer<String>, BuildResult> build;
+
+        private final CompletableFuture<BuildResult> result = new CompletableFuture<>();
+
+        private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+        private BuildTask(String key, Priority priority, long sequence, Function<Consumer<String>, BuildResult> build) {
+            this.key = key;
+            this.priority = priority;
+            this.sequence = sequence;
+            this.build = build;
+        }
+
+        private void addListener(Consumer<String> listener) {
+            if (listener != null) {
+                listeners.add(listener);
+            }
+        }
+
+        /**
+         * 把一行构建输出转发给所有提交者，单个提交者出错不影响其他人
+         */
+        private void publish(String line) {
+            for (Consumer<String> listener : listeners) {
+                try {
+                    listener.accept(line);
+                } catch (Exception e) {
+                    log.debug("转发构建输出失败: {}", e.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -1,11 +1,16 @@
 package com.easen.app.core.builder;
 
-import cn.hutool.core.util.RuntimeUtil;
+import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.io.File;
-import java.util.concurrent.TimeUnit;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * 构建 Vue 项目
@@ -14,136 +19,154 @@ import java.util.concurrent.TimeUnit;
 @Component
 public class VueProjectBuilder {
 
+    @Resource
+    private NodeModulesStore nodeModulesStore;
+
+    @Resource
+    private NpmCommandExecutor npmCommandExecutor;
+
+    @Resource
+    private VueBuildScheduler vueBuildScheduler;
+
+    @Resource
+    private BuildFingerprintStore buildFingerprintStore;
+
+    /**
+     * 异步构建 Vue 项目（进入构建队列，同一项目排队中的构建会合并）
+     *
+     * @param projectPath 项目根目录路径
+     * @param priority    构建优先级
+     * @return 构建结果
+     */
+    public CompletableFuture<BuildResult> buildProjectAsync(String projectPath, VueBuildScheduler.Priority priority) {
+        return buildProjectAsync(projectPath, priority, null);
+    }
+
+    /**
+     * 异步构建 Vue 项目（进入构建队列，同一项目排队中的构建会合并）
+     *
+     * @param projectPath 项目根目录路径
+     * @param priority    构建优先级
+     * @param logListener 构建输出回调（逐行），可为 null
+     * @return 构建结果
+     */
+    public CompletableFuture<BuildResult> buildProjectAsync(String projectPath, VueBuildScheduler.Priority priority,
+                                                            Consumer<String> logListener) {
+        return vueBuildScheduler.submit(projectPath, priority, logListener,
+                output -> doBuildProject(projectPath, output));
+    }
+
     /**
-     * 异步构建 Vue 项目
+     * 构建 Vue 项目，等待构建完成
      *
-     * @param projectPath
+     * @param projectPath 项目根目录路径
+     * @param priority    构建优先级
+     * @param logListener 构建输出回调（逐行），可为 null
+     * @return 构建结果
      */
-    public void buildProjectAsync(String projectPath) {
-        Thread.ofVirtual().name("vue-builder-" + System.currentTimeMillis())
-                .start(() -> {
-                    try {
-                        buildProject(projectPath);
-                    } catch (Exception e) {
-                        log.error("异步构建 Vue 项目时发生异常: {}", e.getMessage(), e);
-                    }
-                });
+    public BuildResult buildProject(String projectPath, VueBuildScheduler.Priority priority, Consumer<String> logListener) {
+        return buildProjectAsync(projectPath, priority, logListener).join();
     }
 
     /**
-     * 构建 Vue 项目
+     * 执行构建
      *
      * @param projectPath 项目根目录路径
-     * @return 是否构建成功
+     * @param output      构建输出回调
+     * @return 构建结果
      */
-    public boolean buildProject(String projectPath) {
+    private BuildResult doBuildProject(String projectPath, Consumer<String> output) {
         File projectDir = new File(projectPath);
         if (!projectDir.exists() || !projectDir.isDirectory()) {
             log.error("项目目录不存在：{}", projectPath);
-            return false;
+            return BuildResult.failure("项目目录不存在", null);
         }
         // 检查是否有 package.json 文件
         File packageJsonFile = new File(projectDir, "package.json");
         if (!packageJsonFile.exists()) {
             log.error("项目目录中没有 package.json 文件：{}", projectPath);
-            return false;
+            return BuildResult.failure("项目中没有 package.json 文件", null);
+        }
+        // 计算依赖清单和源码指纹，与上次成功的安装、构建相同时直接跳过
+        Path projectDirPath = projectDir.toPath();
+        String installFingerprint = null;
+        String sourceFingerprint = null;
+        try {
+            installFingerprint = buildFingerprintStore.computeInstallFingerprint(projectDirPath);
+            sourceFingerprint = buildFingerprintStore.computeSourceFingerprint(projectDirPath);
+        } catch (IOException e) {
+            log.warn("计算构建指纹失败，执行完整构建：{}，错误：{}", projectPath, e.getMessage());
+        }
+        if (sourceFingerprint != null && buildFingerprintStore.isBuilt(projectDirPath, sourceFingerprint)) {
+            nodeModulesStore.touchLinked(projectDir);
+            log.info("项目源码未变化，沿用已有构建产物：{}", projectPath);
+            output.accept("项目源码未变化，沿用已有构建产物");
+            return BuildResult.success("项目源码未变化，沿用已有构建产物");
         }
         log.info("开始构建 Vue 项目：{}", projectPath);
-        // 执行 npm install
-        if (!executeNpmInstall(projectDir)) {
-            log.error("npm install 执行失败：{}", projectPath);
-            return false;
+        // 执行 npm install（依赖清单未变化时跳过）
+        if (installFingerprint != null && buildFingerprintStore.isInstalled(projectDirPath, installFingerprint)) {
+            // 没有经过 link，需要单独刷新所链接存储条目的使用时间
+            nodeModulesStore.touchLinked(projectDir);
+            log.info("依赖清单未变化，跳过 npm install：{}", projectPath);
+            output.accept("依赖清单未变化，跳过 npm install");
+        } else {
+            NpmCommandExecutor.CommandResult installResult = executeNpmInstall(projectDir, output);
+            if (!installResult.success()) {
+                log.error("npm install 执行失败：{}", projectPath);
+                return BuildResult.failure("npm install 执行失败", installResult.tail());
+            }
+            if (installFingerprint != null) {
+                buildFingerprintStore.markInstalled(projectDirPath, installFingerprint);
+            }
         }
+        // 构建会先清空 dist，构建失败时 dist 不再对应任何源码
+        buildFingerprintStore.markBuilt(projectDirPath, null);
         // 执行 npm run build
-        if (!executeNpmBuild(projectDir)) {
+        NpmCommandExecutor.CommandResult buildResult = executeNpmBuild(projectDir, output);
+        if (!buildResult.success()) {
             log.error("npm run build 执行失败：{}", projectPath);
-            return false;
+            return BuildResult.failure("npm run build 执行失败", buildResult.tail());
         }
         // 验证 dist 目录是否生成
         File distDir = new File(projectDir, "dist");
         if (!distDir.exists() || !distDir.isDirectory()) {
             log.error("构建完成但 dist 目录未生成：{}", projectPath);
-            return false;
+            return BuildResult.failure("构建完成但未生成 dist 目录", buildResult.tail());
+        }
+        if (sourceFingerprint != null) {
+            buildFingerprintStore.markBuilt(projectDirPath, sourceFingerprint);
         }
         log.info("Vue 项目构建成功，dist 目录：{}", projectPath);
-        return true;
+        return BuildResult.success("构建成功");
     }
 
     /**
-     * 执行 npm install 命令
+     * 执行 npm install 命令（优先链接共享依赖存储，失败时在项目中直接安装）
      */
-    private boolean executeNpmInstall(File projectDir) {
+    private NpmCommandExecutor.CommandResult executeNpmInstall(File projectDir, Consumer<String> output) {
+        if (nodeModulesStore.link(projectDir, output)) {
+            return new NpmCommandExecutor.CommandResult(true, List.of());
+        }
         log.info("执行 npm install...");
-        String command = String.format("%s install", buildCommand("npm"));
-        return executeCommand(projectDir, command, 300); // 5分钟超时
+        // 移除指向共享存储的链接，避免 npm 把依赖装进共享存储
+        try {
+            Path nodeModules = projectDir.toPath().resolve("node_modules");
+            if (Files.isSymbolicLink(nodeModules)) {
+                Files.delete(nodeModules);
+            }
+        } catch (IOException e) {
+            log.error("移除共享依赖链接失败: {}", e.getMessage());
+            return new NpmCommandExecutor.CommandResult(false, List.of("移除共享依赖链接失败: " + e.getMessage()));
+        }
+        return npmCommandExecutor.execute(projectDir, 300, output, "install", "--prefer-offline"); // 5分钟超时
     }
 
     /**
      * 执行 npm run build 命令
      */
-    private boolean executeNpmBuild(File projectDir) {
+    private NpmCommandExecutor.CommandResult executeNpmBuild(File projectDir, Consumer<String> output) {
         log.info("执行 npm run build...");
-        String command = String.format("%s run build", buildCommand("npm"));
-        return executeCommand(projectDir, command, 180); // 3分钟超时
-    }
-
-    /**
-     * 根据操作系统构造命令
-     *
-     * @param baseCommand
-     * @return
-     */
-    private String buildCommand(String baseCommand) {
-        if (isWindows()) {
-            return baseCommand + ".cmd";
-        }
-        return baseCommand;
-    }
-
-    /**
-     * 操作系统检测
-     *
-     * @return
-     */
-    private boolean isWindows() {
-        return System.getProperty("os.name").toLowerCase().contains("windows");
-    }
-
-    /**
-     * 执行命令
-     *
-     * @param workingDir     工作目录
-     * @param command        命令字符串
-     * @param timeoutSeconds 超时时间（秒）
-     * @return 是否执行成功
-     */
-    private boolean executeCommand(File workingDir, String command, int timeoutSeconds) {
-        try {
-            log.info("在目录 {} 中执行命令: {}", workingDir.getAbsolutePath(), command);
-            Process process = RuntimeUtil.exec(
-                    null,
-                    workingDir,
-                    command.split("\\s+") // 命令分割为数组
-            );
-            // 等待进程完成，设置超时
-            boolean finished = process.waitFor(timeoutSeconds, TimeUnit.SECONDS);
-            if (!finished) {
-                log.error("命令执行超时（{}秒），强制终止进程", timeoutSeconds);
-                process.destroyForcibly();
-                return false;
-            }
-            int exitCode = process.exitValue();
-            if (exitCode == 0) {
-                log.info("命令执行成功: {}", command);
-                return true;
-            } else {
-                log.error("命令执行失败，退出码: {}", exitCode);
-                return false;
-            }
-        } catch (Exception e) {
-            log.error("执行命令失败: {}, 错误信息: {}", command, e.getMessage());
-            return false;
-        }
+        return npmCommandExecutor.execute(projectDir, 180, output, "run", "build"); // 3分钟超时
     }
-
 }
@@ -0,0 +1,144 @@
+package com.easen.app.core.deploy;
+
+import cn.hutool.core.util.IdUtil;
+import com.easen.model.enums.DeployPhaseEnum;
+import com.easen.model.vo.DeployJobVO;
+import lombok.Getter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 部署任务
+ * 记录当前阶段并向订阅者推送进度和构建日志，新订阅者会先收到最新一次的状态和最近的日志
+ */
+@Getter
+public class DeployJob implements DeployProgressListener {
+
+    /**
+     * 为后订阅者保留的日志行数
+     */
+    private static final int LOG_TAIL_LINES = 200;
+
+    private final String jobId = IdUtil.fastSimpleUUID();
+
+    private final Long appId;
+
+    /**
+     * 提交任务的用户
+     */
+    private final Long userId;
+
+    private final LocalDateTime createTime = LocalDateTime.now();
+
+    private volatile LocalDateTime updateTime = createTime;
+
+    private volatile DeployPhaseEnum phase = DeployPhaseEnum.QUEUED;
+
+    private volatile String message = DeployPhaseEnum.QUEUED.getText();
+
+    private volatile String deployUrl;
+
+    /**
+     * 部署结果，成功时为访问地址
+     */
+    private final CompletableFuture<String> result = new CompletableFuture<>();
+
+    private final Sinks.Many<DeployJobVO> progressSink = Sinks.many().replay().latest();
+
+    private final Sinks.Many<String> logSink = Sinks.many().replay().limit(LOG_TAIL_LINES);
+
+    public DeployJob(Long appId, Long userId) {
+        this.appId = appId;
+        this.userId = userId;
+        progressSink.tryEmitNext(toVO());
+    }
+
+    @Override
+    public synchronized void onPhase(DeployPhaseEnum phase) {
+        if (isFinished()) {
+            return;
+        }
+        this.phase = phase;
+        this.message = phase.getText();
+        emit();
+    }
+
+    /**
+     * 部署成功
+     */
+    public synchronized void succeed(String deployUrl) {
+        if (isFinished()) {
+            return;
+        }
+        this.phase = DeployPhaseEnum.SUCCEEDED;
+        this.message = DeployPhaseEnum.SUCCEEDED.getText();
+        this.deployUrl = deployUrl;
+        emit();
+        complete();
+        result.complete(deployUrl);
+    }
+
+    /**
+     * 部署失败
+     */
+    public synchronized void fail(Throwable error) {
+        if (isFinished()) {
+            return;
+        }
+        this.phase = DeployPhaseEnum.FAILED;
+        this.message = error.getMessage() == null ? DeployPhaseEnum.FAILED.getText() : error.getMessage();
+        emit();
+        complete();
+        result.completeExceptionally(error);
+    }
+
+    public boolean isFinished() {
+        return phase.isFinished();
+    }
+
+    @Override
+    public synchronized void onLog(String line) {
+        if (!isFinished()) {
+            logSink.tryEmitNext(line);
+        }
+    }
+
+    /**
+     * 进度流，任务结束后完成
+     */
+    public Flux<DeployJobVO> progress() {
+        return progressSink.asFlux();
+    }
+
+    /**
+     * 构建日志流，任务结束后完成
+     */
+    public Flux<String> logs() {
+        return logSink.asFlux();
+    }
+
+    public DeployJobVO toVO() {
+        DeployJobVO deployJobVO = new DeployJobVO();
+        deployJobVO.setJobId(jobId);
+        deployJobVO.setAppId(appId);
+        deployJobVO.setPhase(phase.getValue());
+        deployJobVO.setMessage(message);
+        deployJobVO.setDeployUrl(deployUrl);
+        deployJobVO.setCreateTime(createTime);
+        deployJobVO.setUpdateTime(updateTime);
+        return deployJobVO;
+    }
+
+    private void complete() {
+        logSink.tryEmitComplete();
+        progressSink.tryEmitComplete();
+    }
+
+    private void emit() {
+        this.updateTime = LocalDateTime.now();
+        progressSink.tryEmitNext(toVO());
+    }
+}
@@ -0,0 +1,137 @@
+package com.easen.app.core.deploy;
+
+import com.easen.app.service.AppService;
+import com.easen.app.service.AppUserService;
+import com.easen.common.exception.BusinessException;
+import com.easen.common.exception.ErrorCode;
+import com.easen.common.exception.ThrowUtils;
+import com.easen.model.entity.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * 部署任务管理器
+ * 部署请求提交后立即返回任务，实际的构建和发布在虚拟线程中执行，同时进行的部署数量受限，其余排队等待。
+ * 同一应用已有未结束的部署任务时，重复提交直接返回该任务
+ */
+@Slf4j
+@Component
+public class DeployJobManager {
+
+    @Resource
+    @Lazy
+    private AppService appService;
+
+    @Resource
+    private AppUserService appUserService;
+
+    /**
+     * 同时执行的部署任务上限（构建会占用大量 CPU 和内存）
+     */
+    private final Semaphore deployPermits;
+
+    /**
+     * key: appId，未结束的部署任务
+     */
+    private final Map<Long, DeployJob> activeJobs = new ConcurrentHashMap<>();
+
+    /**
+     * key: jobId，结束后保留一段时间供查询
+     */
+    private final Cache<String, DeployJob> jobs = Caffeine.newBuilder()
+            .maximumSize(10000)
+            .expireAfterWrite(Duration.ofHours(1))
+            .build();
+
+    public DeployJobManager(@Value("${ai.deploy.max-concurrent:4}") int maxConcurrent) {
+        this.deployPermits = new Semaphore(maxConcurrent, true);
+    }
+
+    /**
+     * 提交部署任务
+     *
+     * @param appId     应用 ID
+     * @param loginUser 当前登录用户
+     * @return 部署任务（同一应用已有未结束的任务时返回该任务）
+     */
+    public DeployJob submit(Long appId, User loginUser) {
+        ThrowUtils.throwIf(appId == null || appId <= 0, ErrorCode.PARAMS_ERROR, "应用 ID 错误");
+        ThrowUtils.throwIf(loginUser == null, ErrorCode.NOT_LOGIN_ERROR, "用户未登录");
+        DeployJob[] created = new DeployJob[1];
+        DeployJob job = activeJobs.computeIfAbsent(appId, key -> {
+            created[0] = new DeployJob(key, loginUser.getId());
+            return created[0];
+        });
+        if (created[0] == null) {
+            log.info("应用已有进行中的部署任务，复用: appId={}, jobId={}", appId, job.getJobId());
+            return job;
+        }
+        jobs.put(job.getJobId(), job);
+        Thread.ofVirtual().name("app-deploy-" + appId).start(() -> run(job, loginUser));
+        return job;
+    }
+
+    /**
+     * 获取部署任务，只有对应用有权限的用户可以查看
+     *
+     * @param jobId     任务 ID
+     * @param loginUser 当前登录用户
+     * @return 部署任务
+     */
+    public DeployJob getJob(String jobId, User loginUser) {
+        DeployJob job = jobs.getIfPresent(jobId);
+        ThrowUtils.throwIf(job == null, ErrorCode.NOT_FOUND_ERROR, "部署任务不存在或已过期");
+        if (!job.getUserId().equals(loginUser.getId())
+                && !appUserService.hasAppPermission(job.getAppId(), loginUser.getId())) {
+            throw new BusinessException(ErrorCode.NO_AUTH_ERROR, "无权限查看该部署任务");
+        }
+        return job;
+    }
+
+    private void run(DeployJob job, User loginUser) {
+        Long appId = job.getAppId();
+        long start = System.currentTimeMillis();
+        try {
+            deployPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finish(job, null, new BusinessException(ErrorCode.SYSTEM_ERROR, "部署任务被中断"));
+            return;
+        }
+        try {
+            String deployUrl = appService.deployApp(appId, loginUser, job);
+            finish(job, deployUrl, null);
+            log.info("应用部署完成: appId={}, jobId={}, 耗时={}ms", appId, job.getJobId(), System.currentTimeMillis() - start);
+        } catch (BusinessException e) {
+            finish(job, null, e);
+        } catch (Exception e) {
+            log.error("应用部署失败: appId={}, jobId={}", appId, job.getJobId(), e);
+            finish(job, null, new BusinessException(ErrorCode.SYSTEM_ERROR, "应用部署失败：" + e.getMessage()));
+        } finally {
+            deployPermits.release();
+        }
+    }
+
+    /**
+     * 先移出进行中列表再结束任务，保证结果返回后的重新提交一定会创建新任务
+     */
+    private void finish(DeployJob job, String deployUrl, Throwable error) {
+        activeJobs.remove(job.getAppId(), job);
+        if (error == null) {
+            job.succeed(deployUrl);
+        } else {
+            log.warn("应用部署失败: appId={}, jobId={}, 原因={}", job.getAppId(), job.getJobId(), error.getMessage());
+            job.fail(error);
+        }
+    }
+}
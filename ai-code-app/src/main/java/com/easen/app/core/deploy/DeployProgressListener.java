@@ -0,0 +1,30 @@
+package com.easen.app.core.deploy;
+
+import com.easen.model.enums.DeployPhaseEnum;
+
+/**
+ * 部署进度监听器
+ */
+public interface DeployProgressListener {
+
+    /**
+     * 不关心进度时使用
+     */
+    DeployProgressListener NONE = phase -> {
+    };
+
+    /**
+     * 进入新阶段
+     *
+     * @param phase 部署阶段
+     */
+    void onPhase(DeployPhaseEnum phase);
+
+    /**
+     * 构建输出的一行日志
+     *
+     * @param line 日志内容
+     */
+    default void onLog(String line) {
+    }
+}
@@ -0,0 +1,178 @@
+package com.easen.app.core.deploy;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.IdUtil;
+import com.easen.common.constant.AppConstant;
+import com.easen.common.manager.BlobManager;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 部署版本管理器
+ * 每次部署写入新的版本目录 {部署根目录}/.versions/{deployKey}/{版本号}，文件硬链接自内容寻址存储
+ * （内容未变的文件与上一版本共用同一份数据），写完后把 {部署根目录}/{deployKey} 这个符号链接原子地切换到新版本，
+ * 访问者要么看到完整的旧版本，要么看到完整的新版本。不支持符号链接的环境退化为目录重命名替换
+ */
+@Slf4j
+@Component
+public class DeployVersionManager {
+
+    /**
+     * 每个部署保留的版本数（含当前版本），便于回退和让正在进行的请求读完旧文件
+     */
+    private static final int KEEP_VERSIONS = 3;
+
+    private static final String VERSIONS_DIR_NAME = ".versions";
+
+    @Resource
+    private BlobManager blobManager;
+
+    /**
+     * 同一部署的发布和删除串行执行
+     */
+    private final Map<String, Object> deployLocks = new ConcurrentHashMap<>();
+
+    /**
+     * 发布新版本
+     *
+     * @param deployKey 部署标识
+     * @param sourceDir 待部署的目录
+     * @return 新版本目录
+     */
+    public Path publish(String deployKey, Path sourceDir) {
+        synchronized (lockOf(deployKey)) {
+            return doPublish(deployKey, sourceDir);
+        }
+    }
+
+    private Path doPublish(String deployKey, Path sourceDir) {
+        long start = System.currentTimeMillis();
+        Path versionsDir = getVersionsDir(deployKey);
+        Path versionDir = versionsDir.resolve(String.valueOf(IdUtil.getSnowflakeNextId()));
+        Path stagingDir = versionsDir.resolve(".staging_" + versionDir.getFileName());
+        try {
+            Files.createDirectories(stagingDir);
+            int fileCount = blobManager.linkTree(sourceDir, stagingDir);
+            Files.move(stagingDir, versionDir, StandardCopyOption.ATOMIC_MOVE);
+            switchCurrent(deployKey, versionDir);
+            log.info("部署版本已发布: deployKey={}, version={}, 文件数={}, 耗时={}ms",
+                    deployKey, versionDir.getFileName(), fileCount, System.currentTimeMillis() - start);
+        } catch (IOException e) {
+            throw new UncheckedIOException("发布部署版本失败: " + deployKey, e);
+        } finally {
+            FileUtil.del(stagingDir);
+        }
+        pruneVersions(deployKey, versionDir);
+        return versionDir;
+    }
+
+    /**
+     * 删除部署的当前链接和所有版本
+     *
+     * @param deployKey 部署标识
+     */
+    public void deleteDeployment(String deployKey) {
+        synchronized (lockOf(deployKey)) {
+            Path currentPath = getCurrentPath(deployKey);
+            try {
+                if (Files.isSymbolicLink(currentPath)) {
+                    Files.delete(currentPath);
+                } else {
+                    FileUtil.del(currentPath);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("删除部署失败: " + deployKey, e);
+            }
+            FileUtil.del(getVersionsDir(deployKey));
+        }
+    }
+
+    /**
+     * 把当前链接切换到新版本：先建临时链接，再原子重命名覆盖旧链接
+     */
+    private void switchCurrent(String deployKey, Path versionDir) throws IOException {
+        Path currentPath = getCurrentPath(deployKey);
+        Path tempLink = currentPath.resolveSibling("." + deployKey + "." + IdUtil.fastSimpleUUID() + ".link");
+        try {
+            Files.createSymbolicLink(tempLink, versionDir.toAbsolutePath());
+        } catch (UnsupportedOperationException | IOException e) {
+            log.warn("无法创建符号链接，改用目录替换: {}", e.getMessage());
+            replaceDirectory(currentPath, versionDir);
+            return;
+        }
+        try {
+            if (Files.isDirectory(currentPath) && !Files.isSymbolicLink(currentPath)) {
+                // 旧的部署是普通目录，重命名无法直接覆盖非空目录，先移走再放入链接
+                Path legacyDir = currentPath.resolveSibling(".legacy_" + deployKey + "_" + IdUtil.fastSimpleUUID());
+                Files.move(currentPath, legacyDir, StandardCopyOption.ATOMIC_MOVE);
+                Files.move(tempLink, currentPath, StandardCopyOption.ATOMIC_MOVE);
+                FileUtil.del(legacyDir);
+            } else {
+                Files.move(tempLink, currentPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempLink);
+        }
+    }
+
+    /**
+     * 不支持符号链接时的退化方案：把版本目录复制成当前目录后整体重命名替换
+     */
+    private void replaceDirectory(Path currentPath, Path versionDir) throws IOException {
+        String suffix = currentPath.getFileName() + "_" + IdUtil.fastSimpleUUID();
+        Path nextDir = currentPath.resolveSibling(".next_" + suffix);
+        Path oldDir = currentPath.resolveSibling(".old_" + suffix);
+        blobManager.linkTree(versionDir, nextDir);
+        if (Files.exists(currentPath)) {
+            Files.move(currentPath, oldDir, StandardCopyOption.ATOMIC_MOVE);
+        }
+        Files.move(nextDir, currentPath, StandardCopyOption.ATOMIC_MOVE);
+        FileUtil.del(oldDir);
+    }
+
+    /**
+     * 只保留最近的若干个版本
+     */
+    private void pruneVersions(String deployKey, Path currentVersion) {
+        File[] versions = getVersionsDir(deployKey).toFile()
+                .listFiles(file -> file.isDirectory() && !file.getName().startsWith("."));
+        if (versions == null || versions.length <= KEEP_VERSIONS) {
+            return;
+        }
+        List<File> sorted = Arrays.stream(versions)
+                .sorted(Comparator.comparingLong((File file) -> Long.parseLong(file.getName())).reversed())
+                .toList();
+        for (File version : sorted.subList(KEEP_VERSIONS, sorted.size())) {
+            if (!version.toPath().equals(currentVersion)) {
+                FileUtil.del(version);
+                log.info("清理旧部署版本: deployKey={}, version={}", deployKey, version.getName());
+            }
+        }
+    }
+
+    private Object lockOf(String deployKey) {
+        return deployLocks.computeIfAbsent(deployKey, key -> new Object());
+    }
+
+    private static Path getCurrentPath(String deployKey) {
+        return Paths.get(AppConstant.CODE_DEPLOY_ROOT_DIR, deployKey);
+    }
+
+    private static Path getVersionsDir(String deployKey) {
+        return Paths.get(AppConstant.CODE_DEPLOY_ROOT_DIR, VERSIONS_DIR_NAME, deployKey);
+    }
+}
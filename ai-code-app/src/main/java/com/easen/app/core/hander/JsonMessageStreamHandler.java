@@ -39,19 +39,22 @@ public class JsonMessageStreamHandler {
      * @param loginUser          登录用户
      * @return 处理后的流
      */
-    public Flux<String> handle(Flux<String> originFlux,
+    public Flux<StreamChunk> handle(Flux<String> originFlux,
                                ChatHistoryService chatHistoryService,
                                long appId, User loginUser) {
         // 收集数据用于生成后端记忆格式
         StringBuilder chatHistoryStringBuilder = new StringBuilder();
         // 用于跟踪已经见过的工具ID，判断是否是第一次调用
         Set<String> seenToolIds = new HashSet<>();
+        // 本轮 AI 回复在对话历史中的起始位置（上一次工具调用结果之后），回复重置时回退到这里
+        int[] responseStart = {0};
         return originFlux
                 .map(chunk -> {
                     // 解析每个 JSON 消息块
-                    return handleJsonMessageChunk(chunk, chatHistoryStringBuilder, seenToolIds);
+                    return handleJsonMessageChunk(chunk, chatHistoryStringBuilder, seenToolIds, responseStart);
                 })
-                .filter(StrUtil::isNotEmpty) // 过滤空字串
+                // 过滤空字串，带事件名的片段（如回复重置）没有内容也要发送
+                .filter(streamChunk -> streamChunk.event() != null || StrUtil.isNotEmpty(streamChunk.data()))
                 .doOnComplete(() -> {
                     //判断消息状态
                     // 流式响应完成后，添加 AI 消息到对话历史
@@ -68,7 +71,8 @@ public class JsonMessageStreamHandler {
     /**
      * 解析并收集 TokenStream 数据
      */
-    private String handleJsonMessageChunk(String chunk, StringBuilder chatHistoryStringBuilder, Set<String> seenToolIds) {
+    private StreamChunk handleJsonMessageChunk(String chunk, StringBuilder chatHistoryStringBuilder, Set<String> seenToolIds,
+                                               int[] responseStart) {
         // 解析 JSON
         StreamMessage streamMessage = JSONUtil.toBean(chunk, StreamMessage.class);
         StreamMessageTypeEnum typeEnum = StreamMessageTypeEnum.getEnumByValue(streamMessage.getType());
@@ -78,7 +82,12 @@ public class JsonMessageStreamHandler {
                 String data = aiMessage.getData();
                 // 直接拼接响应
                 chatHistoryStringBuilder.append(data);
-                return data;
+                return StreamChunk.content(data);
+            }
+            case AI_RESPONSE_RESET -> {
+                // 本轮回复未通过输出护轨，丢弃已记录的部分，重新生成的回复随后到达
+                chatHistoryStringBuilder.setLength(responseStart[0]);
+                return StreamChunk.aiResponseReset();
             }
             case TOOL_REQUEST -> {
                 ToolRequestMessage toolRequestMessage = JSONUtil.toBean(chunk, ToolRequestMessage.class);
@@ -91,10 +100,10 @@ public class JsonMessageStreamHandler {
                     // 根据工具名称获取工具实例
                     BaseTool tool = toolManager.getTool(toolName);
                     // 返回格式化的工具调用信息
-                    return tool.generateToolRequestResponse();
+                    return StreamChunk.content(tool.generateToolRequestResponse());
                 } else {
                     // 不是第一次调用这个工具，直接返回空
-                    return "";
+                    return StreamChunk.content("");
                 }
             }
             case TOOL_EXECUTED -> {
@@ -107,11 +116,17 @@ public class JsonMessageStreamHandler {
                 // 输出前端和要持久化的内容
                 String output = String.format("\n\n%s\n\n", result);
                 chatHistoryStringBuilder.append(output);
-                return output;
+                responseStart[0] = chatHistoryStringBuilder.length();
+                return StreamChunk.content(output);
+            }
+            case BUILD_LOG -> {
+                // 构建日志只推送给前端，不写入对话历史
+                BuildLogMessage buildLogMessage = JSONUtil.toBean(chunk, BuildLogMessage.class);
+                return StreamChunk.buildLog(buildLogMessage.getData());
             }
             default -> {
                 log.error("不支持的消息类型: {}", typeEnum);
-                return "";
+                return StreamChunk.content("");
             }
         }
     }
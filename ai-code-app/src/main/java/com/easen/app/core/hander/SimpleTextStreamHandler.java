@@ -24,7 +24,7 @@ public class SimpleTextStreamHandler {
      * @param loginUser          登录用户
      * @return 处理后的流
      */
-    public Flux<String> handle(Flux<String> originFlux,
+    public Flux<StreamChunk> handle(Flux<String> originFlux,
                                ChatHistoryService chatHistoryService,
                                long appId, User loginUser) {
         StringBuilder aiResponseBuilder = new StringBuilder();
@@ -32,7 +32,7 @@ public class SimpleTextStreamHandler {
                 .map(chunk -> {
                     // 收集AI响应内容
                     aiResponseBuilder.append(chunk);
-                    return chunk;
+                    return StreamChunk.content(chunk);
                 })
                 .doOnComplete(() -> {
                     // 流式响应正常完成，添加AI消息到对话历史
@@ -0,0 +1,42 @@
+package com.easen.app.core.hander;
+
+/**
+ * 推送给前端的流式片段
+ * 普通的 AI 回复内容不带事件名，构建日志等附加信息带事件名，由控制层统一转换为 SSE 事件
+ *
+ * @param event 事件名，普通内容为 null
+ * @param data  内容
+ */
+public record StreamChunk(String event, String data) {
+
+    /**
+     * 构建日志事件
+     */
+    public static final String BUILD_LOG_EVENT = "build_log";
+
+    /**
+     * AI 回复重置事件，前端收到后丢弃本轮（上一次工具调用之后）已显示的 AI 回复
+     */
+    public static final String AI_RESPONSE_RESET_EVENT = "ai_response_reset";
+
+    /**
+     * 普通内容
+     */
+    public static StreamChunk content(String data) {
+        return new StreamChunk(null, data);
+    }
+
+    /**
+     * 一行构建日志
+     */
+    public static StreamChunk buildLog(String line) {
+        return new StreamChunk(BUILD_LOG_EVENT, line);
+    }
+
+    /**
+     * AI 回复重置
+     */
+    public static StreamChunk aiResponseReset() {
+        return new StreamChunk(AI_RESPONSE_RESET_EVENT, "");
+    }
+}
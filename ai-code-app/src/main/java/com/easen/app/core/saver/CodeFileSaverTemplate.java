@@ -5,10 +5,12 @@ import cn.hutool.core.util.StrUtil;
 import com.easen.common.constant.AppConstant;
 import com.easen.common.exception.BusinessException;
 import com.easen.common.exception.ErrorCode;
+import com.easen.common.manager.BlobManager;
+import com.easen.common.utils.SpringContextUtil;
 import com.easen.model.enums.CodeGenTypeEnum;
 
 import java.io.File;
-import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
 
 /**
  * 抽象代码文件保存器 - 模板方法模式
@@ -71,7 +73,8 @@ public abstract class CodeFileSaverTemplate<T> {
     protected final void writeToFile(String dirPath, String filename, String content) {
         if (StrUtil.isNotBlank(content)) {
             String filePath = dirPath + File.separator + filename;
-            FileUtil.writeString(content, filePath, StandardCharsets.UTF_8);
+            // 先写临时文件再原子替换，读取方不会看到写了一半的文件
+            SpringContextUtil.getBean(BlobManager.class).writeFile(Paths.get(filePath), content);
         }
     }
 
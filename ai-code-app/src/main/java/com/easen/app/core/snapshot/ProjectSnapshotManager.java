@@ -0,0 +1,518 @@
+package com.easen.app.core.snapshot;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.json.JSONUtil;
+import com.easen.ai.workspace.ProjectDirectoryIndex;
+import com.easen.ai.workspace.ProjectWorkspaceManager;
+import com.easen.app.core.GenerationTaskManager;
+import com.easen.app.core.builder.VueBuildScheduler;
+import com.easen.app.core.builder.VueProjectBuilder;
+import com.easen.common.constant.AppConstant;
+import com.easen.common.exception.BusinessException;
+import com.easen.common.exception.ErrorCode;
+import com.easen.common.exception.ThrowUtils;
+import com.easen.common.manager.BlobManager;
+import com.easen.common.manager.BlobRootProvider;
+import com.easen.model.enums.CodeGenTypeEnum;
+import com.easen.model.vo.ProjectSnapshotDiffVO;
+import com.easen.model.vo.ProjectSnapshotVO;
+import jakarta.annotation.Resource;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 项目快照管理器
+ * 每次生成完成后记录一份清单（相对路径 -> 内容摘要），文件内容本身在内容寻址存储中只存一份，
+ * 快照几乎不占额外空间；恢复时按清单生成新的版本目录，再把项目目录（指向当前版本的符号链接）原子切换过去
+ */
+@Slf4j
+@Component
+public class ProjectSnapshotManager implements BlobRootProvider {
+
+    /**
+     * 每个应用保留的快照数
+     */
+    private static final int MAX_SNAPSHOTS = 20;
+
+    /**
+     * 不纳入快照的目录（依赖和构建产物可以重新生成）
+     */
+    private static final Set<String> EXCLUDED_DIRS = Set.of("node_modules", "dist");
+
+    /**
+     * 项目版本目录名（位于代码输出根目录下）
+     */
+    private static final String VERSIONS_DIR_NAME = ".versions";
+
+    @Resource
+    private BlobManager blobManager;
+
+    @Resource
+    private GenerationTaskManager generationTaskManager;
+
+    @Resource
+    private ProjectWorkspaceManager projectWorkspaceManager;
+
+    @Resource
+    private ProjectDirectoryIndex projectDirectoryIndex;
+
+    @Resource
+    private VueProjectBuilder vueProjectBuilder;
+
+    /**
+     * 同一应用的快照创建和恢复串行执行
+     */
+    private final Map<Long, Object> appLocks = new ConcurrentHashMap<>();
+
+    /**
+     * 异步记录快照，不阻塞生成流程
+     *
+     * @param appId       应用 ID
+     * @param codeGenType 代码生成类型
+     */
+    public void createSnapshotAsync(Long appId, CodeGenTypeEnum codeGenType) {
+        Thread.ofVirtual().name("project-snapshot-" + appId)
+                .start(() -> {
+                    try {
+                        createSnapshot(appId, codeGenType);
+                    } catch (Exception e) {
+                        log.error("记录项目快照失败: appId={}, 错误: {}", appId, e.getMessage(), e);
+                    }
+                });
+    }
+
+    /**
+     * 记录当前项目的快照，与最近一次快照内容相同时不重复记录
+     *
+     * @param appId       应用 ID
+     * @param codeGenType 代码生成类型
+     * @return 快照 ID，项目不存在或没有变化时返回 null
+     */
+    public Long createSnapshot(Long appId, CodeGenTypeEnum codeGenType) {
+        Path projectDir = getProjectDir(appId, codeGenType);
+        if (!Files.isDirectory(projectDir)) {
+            return null;
+        }
+        synchronized (lockOf(appId)) {
+            Manifest manifest = new Manifest();
+            manifest.setSnapshotId(IdUtil.getSnowflakeNextId());
+            manifest.setAppId(appId);
+            manifest.setCodeGenType(codeGenType.getValue());
+            manifest.setCreateTime(System.currentTimeMillis());
+            manifest.setFiles(scanFiles(projectDir, manifest));
+            List<Manifest> manifests = listManifests(appId);
+            if (!manifests.isEmpty() && manifests.getFirst().getFiles().equals(manifest.getFiles())) {
+                log.info("项目内容与最近的快照相同，跳过记录: appId={}", appId);
+                return null;
+            }
+            Path manifestFile = getManifestFile(appId, manifest.getSnapshotId());
+            FileUtil.writeUtf8String(JSONUtil.toJsonStr(manifest), manifestFile.toFile());
+            // 只保留最近的若干个快照清单，文件内容仍在内容寻址存储中
+            for (int i = MAX_SNAPSHOTS - 1; i < manifests.size(); i++) {
+                FileUtil.del(getManifestFile(appId, manifests.get(i).getSnapshotId()));
+            }
+            log.info("记录项目快照: appId={}, snapshotId={}, 文件数={}", appId, manifest.getSnapshotId(), manifest.getFiles().size());
+            return manifest.getSnapshotId();
+        }
+    }
+
+    /**
+     * 列出应用的快照（按时间倒序）
+     *
+     * @param appId 应用 ID
+     * @return 快照列表
+     */
+    public List<ProjectSnapshotVO> listSnapshots(Long appId) {
+        return listManifests(appId).stream().map(this::toVO).toList();
+    }
+
+    /**
+     * 比较两个快照的差异
+     *
+     * @param appId          应用 ID
+     * @param fromSnapshotId 起始快照 ID
+     * @param toSnapshotId   目标快照 ID
+     * @return 从起始快照到目标快照的文件变化
+     */
+    public ProjectSnapshotDiffVO diffSnapshots(Long appId, Long fromSnapshotId, Long toSnapshotId) {
+        Map<String, String> fromFiles = getManifest(appId, fromSnapshotId).getFiles();
+        Map<String, String> toFiles = getManifest(appId, toSnapshotId).getFiles();
+        List<String> added = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+        List<String> modified = new ArrayList<>();
+        toFiles.forEach((path, digest) -> {
+            String previous = fromFiles.get(path);
+            if (previous == null) {
+                added.add(path);
+            } else if (!previous.equals(digest)) {
+                modified.add(path);
+            }
+        });
+        fromFiles.keySet().stream().filter(path -> !toFiles.containsKey(path)).forEach(removed::add);
+        ProjectSnapshotDiffVO diffVO = new ProjectSnapshotDiffVO();
+        diffVO.setFromSnapshotId(fromSnapshotId);
+        diffVO.setToSnapshotId(toSnapshotId);
+        diffVO.setAddedFiles(added);
+        diffVO.setRemovedFiles(removed);
+        diffVO.setModifiedFiles(modified);
+        return diffVO;
+    }
+
+    /**
+     * 把项目恢复到指定快照
+     * 先在版本目录中按清单生成完整项目（与当前项目内容相同的文件直接硬链接，沿用现有的 node_modules），
+     * 再把项目目录的符号链接原子切换到新版本，预览和构建始终能看到完整的项目目录。
+     * 恢复期间占用该应用，不能开始新的生成任务
+     *
+     * @param appId      应用 ID
+     * @param snapshotId 快照 ID
+     */
+    public void restoreSnapshot(Long appId, Long snapshotId) {
+        Manifest manifest = getManifest(appId, snapshotId);
+        CodeGenTypeEnum codeGenType = CodeGenTypeEnum.getEnumByValue(manifest.getCodeGenType());
+        ThrowUtils.throwIf(codeGenType == null, ErrorCode.SYSTEM_ERROR, "快照的代码生成类型无效");
+        ThrowUtils.throwIf(!generationTaskManager.tryBeginExclusive(appId), ErrorCode.OPERATION_ERROR, "应用正在生成代码，请稍后再试");
+        Path projectDir = getProjectDir(appId, codeGenType);
+        long start = System.currentTimeMillis();
+        Path previousDir;
+        try {
+            synchronized (lockOf(appId)) {
+                previousDir = swapInSnapshot(projectDir, manifest);
+            }
+            // 项目目录已整体替换，丢弃基于旧目录的索引和工作区
+            projectDirectoryIndex.invalidate(appId);
+            projectWorkspaceManager.rollback(appId);
+        } catch (IOException | UnsupportedOperationException e) {
+            log.error("恢复项目快照失败: appId={}, snapshotId={}", appId, snapshotId, e);
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "恢复项目快照失败: " + e.getMessage());
+        } finally {
+            generationTaskManager.endExclusive(appId);
+        }
+        log.info("项目已恢复到快照: appId={}, snapshotId={}, 耗时={}ms", appId, snapshotId, System.currentTimeMillis() - start);
+        if (previousDir != null) {
+            Path oldDir = previousDir;
+            Thread.ofVirtual().name("snapshot-cleanup-" + appId).start(() -> FileUtil.del(oldDir));
+        }
+        if (codeGenType == CodeGenTypeEnum.VUE_PROJECT) {
+            // 构建产物不在快照中，恢复后重新构建
+            vueProjectBuilder.buildProjectAsync(projectDir.toString(), VueBuildScheduler.Priority.INTERACTIVE);
+        }
+    }
+
+    /**
+     * 生成快照对应的新版本目录，并把项目目录切换过去
+     *
+     * @return 被替换下来的旧目录（由调用方删除），项目目录原本不存在时返回 null
+     */
+    private Path swapInSnapshot(Path projectDir, Manifest manifest) throws IOException {
+        Path versionsDir = getVersionsDir(projectDir);
+        Path versionDir = versionsDir.resolve(String.valueOf(IdUtil.getSnowflakeNextId()));
+        Path stagingDir = versionsDir.resolve(".staging_" + versionDir.getFileName());
+        Path currentDir = Files.isDirectory(projectDir) ? projectDir.toRealPath() : null;
+        Path nodeModules = currentDir == null ? null : currentDir.resolve("node_modules");
+        Path stagedNodeModules = stagingDir.resolve("node_modules");
+        boolean swapped = false;
+        try {
+            Files.createDirectories(stagingDir);
+            manifest.getFiles().forEach((path, digest) -> {
+                ThrowUtils.throwIf(!blobManager.exists(digest), ErrorCode.SYSTEM_ERROR, "快照文件内容已丢失: " + path);
+                Path target = stagingDir.resolve(path);
+                if (currentDir == null || !linkUnchanged(currentDir.resolve(path), digest, target)) {
+                    blobManager.materialize(digest, target);
+                }
+            });
+            // 依赖与源码无关，沿用现有的依赖，避免重新安装
+            if (nodeModules != null && Files.isSymbolicLink(nodeModules)) {
+                Files.createSymbolicLink(stagedNodeModules, Files.readSymbolicLink(nodeModules));
+            } else if (nodeModules != null && Files.isDirectory(nodeModules)) {
+                Files.move(nodeModules, stagedNodeModules, StandardCopyOption.ATOMIC_MOVE);
+            }
+            Files.move(stagingDir, versionDir, StandardCopyOption.ATOMIC_MOVE);
+            Path previousDir = switchProjectDir(projectDir, versionDir, currentDir);
+            swapped = true;
+            return previousDir;
+        } finally {
+            if (!swapped) {
+                restoreNodeModules(stagedNodeModules, versionDir, nodeModules);
+                FileUtil.del(versionDir);
+            }
+            FileUtil.del(stagingDir);
+        }
+    }
+
+    /**
+     * 当前项目中的文件与快照内容相同时，直接硬链接到新版本目录，省去一次复制
+     * 旧版本目录在切换后删除，新版本独占这些文件，之后的改写不会影响其他目录
+     *
+     * @return 是否已链接
+     */
+    private boolean linkUnchanged(Path currentFile, String digest, Path target) {
+        try {
+            if (!Files.isRegularFile(currentFile, LinkOption.NOFOLLOW_LINKS)
+                    || Files.size(currentFile) != Files.size(blobManager.getBlobPath(digest))
+                    || !digest.equals(blobManager.digest(currentFile))) {
+                return false;
+            }
+            Files.createDirectories(target.getParent());
+            Files.createLink(target, currentFile);
+            return true;
+        } catch (IOException | UnsupportedOperationException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 把项目目录切换到新版本：先建临时链接，再原子重命名覆盖旧链接
+     *
+     * @return 被替换下来的旧目录，项目目录原本不存在时返回 null
+     */
+    private Path switchProjectDir(Path projectDir, Path versionDir, Path currentDir) throws IOException {
+        String suffix = projectDir.getFileName() + "_" + IdUtil.fastSimpleUUID();
+        Path tempLink = projectDir.resolveSibling("." + suffix + ".link");
+        try {
+            Files.createSymbolicLink(tempLink, versionDir.toAbsolutePath());
+        } catch (UnsupportedOperationException | IOException e) {
+            log.warn("无法创建符号链接，改用目录替换: {}", e.getMessage());
+            return replaceDirectory(projectDir, versionDir, suffix);
+        }
+        try {
+            if (Files.isDirectory(projectDir) && !Files.isSymbolicLink(projectDir)) {
+                // 项目目录还是普通目录（首次恢复），重命名无法直接覆盖非空目录，先移走再放入链接
+                Path legacyDir = projectDir.resolveSibling(".legacy_" + suffix);
+                Files.move(projectDir, legacyDir, StandardCopyOption.ATOMIC_MOVE);
+                try {
+                    Files.move(tempLink, projectDir, StandardCopyOption.ATOMIC_MOVE);
+                } catch (IOException e) {
+                    Files.move(legacyDir, projectDir, StandardCopyOption.ATOMIC_MOVE);
+                    throw e;
+                }
+                return legacyDir;
+            }
+            Files.move(tempLink, projectDir, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return currentDir;
+        } finally {
+            Files.deleteIfExists(tempLink);
+        }
+    }
+
+    /**
+     * 不支持符号链接时的退化方案：把新版本目录整体重命名为项目目录
+     */
+    private Path replaceDirectory(Path projectDir, Path versionDir, String suffix) throws IOException {
+        Path oldDir = projectDir.resolveSibling(".old_" + suffix);
+        if (Files.exists(projectDir)) {
+            Files.move(projectDir, oldDir, StandardCopyOption.ATOMIC_MOVE);
+        }
+        try {
+            Files.move(versionDir, projectDir, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // 替换失败时放回原目录
+            if (Files.exists(oldDir)) {
+                Files.move(oldDir, projectDir, StandardCopyOption.ATOMIC_MOVE);
+            }
+            throw e;
+        }
+        return Files.exists(oldDir) ? oldDir : null;
+    }
+
+    /**
+     * 恢复失败时把已经移入新版本的依赖目录放回原项目目录
+     */
+    private void restoreNodeModules(Path stagedNodeModules, Path versionDir, Path nodeModules) {
+        if (nodeModules == null || Files.exists(nodeModules, LinkOption.NOFOLLOW_LINKS)) {
+            return;
+        }
+        // 失败时依赖可能还在暂存目录，也可能已随暂存目录移入版本目录
+        Path source = Files.isDirectory(stagedNodeModules, LinkOption.NOFOLLOW_LINKS)
+                ? stagedNodeModules
+                : versionDir.resolve("node_modules");
+        if (!Files.isDirectory(source, LinkOption.NOFOLLOW_LINKS)) {
+            return;
+        }
+        try {
+            Files.move(source, nodeModules, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("放回 node_modules 失败，下次构建时会重新安装: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 删除应用的所有快照清单
+     *
+     * @param appId 应用 ID
+     */
+    public void deleteSnapshots(Long appId) {
+        FileUtil.del(getSnapshotDir(appId));
+    }
+
+    /**
+     * 所有快照清单引用的文件内容，被删除或超出保留数量的快照不再引用
+     */
+    @Override
+    public void collectBlobRoots(Set<String> roots) {
+        File[] appDirs = new File(AppConstant.CODE_SNAPSHOT_ROOT_DIR).listFiles(File::isDirectory);
+        if (appDirs == null) {
+            return;
+        }
+        for (File appDir : appDirs) {
+            File[] manifestFiles = appDir.listFiles((dir, name) -> name.endsWith(".json"));
+            if (manifestFiles == null) {
+                continue;
+            }
+            for (File manifestFile : manifestFiles) {
+                Manifest manifest = readManifest(manifestFile.toPath());
+                if (manifest != null && manifest.getFiles() != null) {
+                    roots.addAll(manifest.getFiles().values());
+                }
+            }
+        }
+    }
+
+    private Map<String, String> scanFiles(Path projectDir, Manifest manifest) {
+        Map<String, String> files = new TreeMap<>();
+        long[] totalBytes = {0};
+        try {
+            // 项目目录可能是指向当前版本的符号链接，从实际目录开始遍历
+            Path root = projectDir.toRealPath();
+            Files.walkFileTree(root, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    return !dir.equals(root) && EXCLUDED_DIRS.contains(dir.getFileName().toString())
+                            ? FileVisitResult.SKIP_SUBTREE
+                            : FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (attrs.isRegularFile()) {
+                        String relativePath = root.relativize(file).toString().replace('\\', '/');
+                        files.put(relativePath, blobManager.putFile(file));
+                        totalBytes[0] += attrs.size();
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "读取项目目录失败: " + e.getMessage());
+        }
+        manifest.setTotalBytes(totalBytes[0]);
+        return files;
+    }
+
+    private Manifest getManifest(Long appId, Long snapshotId) {
+        ThrowUtils.throwIf(snapshotId == null || snapshotId <= 0, ErrorCode.PARAMS_ERROR, "快照 ID 无效");
+        Path manifestFile = getManifestFile(appId, snapshotId);
+        ThrowUtils.throwIf(!Files.isRegularFile(manifestFile), ErrorCode.NOT_FOUND_ERROR, "快照不存在");
+        return readManifest(manifestFile);
+    }
+
+    /**
+     * 读取应用的所有快照清单，按时间倒序
+     */
+    private List<Manifest> listManifests(Long appId) {
+        File[] manifestFiles = getSnapshotDir(appId).toFile().listFiles((dir, name) -> name.endsWith(".json"));
+        if (manifestFiles == null) {
+            return List.of();
+        }
+        List<Manifest> manifests = new ArrayList<>();
+        for (File manifestFile : manifestFiles) {
+            Manifest manifest = readManifest(manifestFile.toPath());
+            if (manifest != null) {
+                manifests.add(manifest);
+            }
+        }
+        manifests.sort(Comparator.comparingLong(Manifest::getCreateTime).reversed());
+        return manifests;
+    }
+
+    private Manifest readManifest(Path manifestFile) {
+        try {
+            return JSONUtil.toBean(Files.readString(manifestFile, StandardCharsets.UTF_8), Manifest.class);
+        } catch (Exception e) {
+            log.warn("读取快照清单失败: {}, 错误: {}", manifestFile, e.getMessage());
+            return null;
+        }
+    }
+
+    private ProjectSnapshotVO toVO(Manifest manifest) {
+        ProjectSnapshotVO snapshotVO = new ProjectSnapshotVO();
+        snapshotVO.setSnapshotId(manifest.getSnapshotId());
+        snapshotVO.setAppId(manifest.getAppId());
+        snapshotVO.setFileCount(manifest.getFiles() == null ? 0 : manifest.getFiles().size());
+        snapshotVO.setTotalBytes(manifest.getTotalBytes());
+        snapshotVO.setCreateTime(LocalDateTime.ofInstant(Instant.ofEpochMilli(manifest.getCreateTime()), ZoneId.systemDefault()));
+        return snapshotVO;
+    }
+
+    private Object lockOf(Long appId) {
+        return appLocks.computeIfAbsent(appId, key -> new Object());
+    }
+
+    private static Path getProjectDir(Long appId, CodeGenTypeEnum codeGenType) {
+        return Paths.get(AppConstant.CODE_OUTPUT_ROOT_DIR, codeGenType.getValue() + "_" + appId);
+    }
+
+    /**
+     * 项目的版本目录：项目目录是指向其中某个版本的符号链接，恢复快照时切换
+     *
+     * @param projectDir 项目目录
+     * @return {输出根目录}/.versions/{项目目录名}
+     */
+    public static Path getVersionsDir(Path projectDir) {
+        return projectDir.resolveSibling(VERSIONS_DIR_NAME).resolve(projectDir.getFileName());
+    }
+
+    private static Path getSnapshotDir(Long appId) {
+        return Paths.get(AppConstant.CODE_SNAPSHOT_ROOT_DIR, String.valueOf(appId));
+    }
+
+    private static Path getManifestFile(Long appId, Long snapshotId) {
+        return getSnapshotDir(appId).resolve(snapshotId + ".json");
+    }
+
+    /**
+     * 快照清单
+     */
+    @Data
+    public static class Manifest {
+
+        private Long snapshotId;
+
+        private Long appId;
+
+        private String codeGenType;
+
+        private Long createTime;
+
+        private Long totalBytes;
+
+        /**
+         * 相对路径 -> 内容摘要
+         */
+        private Map<String, String> files;
+    }
+}
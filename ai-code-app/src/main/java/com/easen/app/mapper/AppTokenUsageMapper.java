@@ -0,0 +1,22 @@
+package com.easen.app.mapper;
+
+import com.easen.model.entity.AppTokenUsage;
+import com.mybatisflex.core.BaseMapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 应用 Token 用量 映射层。
+ *
+ * @author <a>easen</a>
+ */
+public interface AppTokenUsageMapper extends BaseMapper<AppTokenUsage> {
+
+    /**
+     * 批量累加用量，不存在则插入
+     *
+     * @param usageList 增量列表
+     */
+    void batchUpsertUsage(@Param("usageList") List<AppTokenUsage> usageList);
+}
@@ -1,5 +1,7 @@
 package com.easen.app.service;
 
+import com.easen.app.core.deploy.DeployProgressListener;
+import com.easen.app.core.hander.StreamChunk;
 import com.easen.model.dto.app.AppAddRequest;
 import com.easen.model.dto.app.AppQueryRequest;
 import com.easen.model.entity.App;
@@ -44,6 +46,16 @@ public interface AppService extends IService<App> {
      */
     String deployApp(Long appId, User loginUser);
 
+    /**
+     * 部署应用，并回调通知阶段进度和构建日志
+     *
+     * @param appId            应用 ID
+     * @param loginUser        当前登录用户
+     * @param progressListener 进度监听器
+     * @return 部署后的应用访问 URL
+     */
+    String deployApp(Long appId, User loginUser, DeployProgressListener progressListener);
+
     /**
      * 获取应用视图对象
      *
@@ -76,9 +88,9 @@ public interface AppService extends IService<App> {
      * @param message   用户输入消息/需求描述
      * @param loginUser 登录用户（用于鉴权与限流）
      * @param images    可选的图片 URL 列表（用于多模态场景）
-     * @return 代码片段字符串的响应流（可对接 SSE/WebFlux 实时推送）
+     * @return 代码片段及构建日志的响应流（可对接 SSE/WebFlux 实时推送）
      */
-    Flux<String> chatToGenCode(Long appId, String message, User loginUser,List<String> images);
+    Flux<StreamChunk> chatToGenCode(Long appId, String message, User loginUser,List<String> images);
 
 
     /**
@@ -0,0 +1,57 @@
+package com.easen.app.service;
+
+import com.easen.model.entity.AppTokenUsage;
+import com.easen.model.vo.TokenUsageVO;
+import com.mybatisflex.core.service.IService;
+import dev.langchain4j.model.output.TokenUsage;
+
+import java.util.List;
+
+/**
+ * Token 用量 服务层。
+ *
+ * @author <a>easen</a>
+ */
+public interface TokenUsageService extends IService<AppTokenUsage> {
+
+    /**
+     * 记录一次模型调用的 token 用量（仅在内存中累加，定时批量落库）
+     *
+     * @param appId      应用 id
+     * @param userId     用户 id
+     * @param modelName  模型名称
+     * @param tokenUsage token 用量
+     */
+    void recordUsage(Long appId, Long userId, String modelName, TokenUsage tokenUsage);
+
+    /**
+     * 将内存中累加的用量批量写入数据库
+     */
+    void flushUsage();
+
+    /**
+     * 查询应用最近若干天的用量（含尚未落库的部分）
+     *
+     * @param appId 应用 id
+     * @param days  天数
+     * @return 按日期倒序的用量列表
+     */
+    List<TokenUsageVO> listAppTokenUsage(Long appId, int days);
+
+    /**
+     * 查询用户最近若干天的用量（含尚未落库的部分）
+     *
+     * @param userId 用户 id
+     * @param days   天数
+     * @return 按日期倒序的用量列表
+     */
+    List<TokenUsageVO> listUserTokenUsage(Long userId, int days);
+
+    /**
+     * 获取用户当天已消耗的总 token 数，用于配额校验
+     *
+     * @param userId 用户 id
+     * @return 总 token 数
+     */
+    long getUserTodayTotalTokens(Long userId);
+}
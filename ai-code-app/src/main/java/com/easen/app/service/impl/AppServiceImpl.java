@@ -2,16 +2,18 @@ package com.easen.app.service.impl;
 
 import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.collection.CollUtil;
-import cn.hutool.core.io.FileUtil;
 import cn.hutool.core.util.RandomUtil;
 import cn.hutool.core.util.StrUtil;
-import com.easen.ai.AiCodeGenTypeRoutingService;
-import com.easen.ai.AiCodeGeneratorService;
-import com.easen.app.ai.AiCodeGenTypeRoutingServiceFactory;
-import com.easen.app.ai.AiCodeGeneratorServiceFactory;
+import com.easen.app.ai.AppNameGenerator;
+import com.easen.app.ai.routing.CodeGenTypeRouter;
 import com.easen.app.core.AiCodeGeneratorFacade;
 import com.easen.app.core.AppResourceCleaner;
+import com.easen.app.core.builder.BuildResult;
+import com.easen.app.core.builder.VueBuildScheduler;
 import com.easen.app.core.builder.VueProjectBuilder;
+import com.easen.app.core.deploy.DeployProgressListener;
+import com.easen.app.core.deploy.DeployVersionManager;
+import com.easen.app.core.hander.StreamChunk;
 import com.easen.app.core.hander.StreamHandlerExecutor;
 import com.easen.app.mapper.AppMapper;
 import com.easen.app.service.AppService;
@@ -81,13 +83,16 @@ public class AppServiceImpl extends ServiceImpl<AppMapper, App> implements AppSe
     private AppResourceCleaner appResourceCleaner;
 
     @Resource
-    private AiCodeGenTypeRoutingServiceFactory aiCodeGenTypeRoutingServiceFactory;
+    private CodeGenTypeRouter codeGenTypeRouter;
 
     @Resource
-    private AiCodeGeneratorServiceFactory aiCodeGeneratorServiceFactory;
+    private AppNameGenerator appNameGenerator;
+
+    @Resource
+    private DeployVersionManager deployVersionManager;
 
     @Override
-    public Flux<String> chatToGenCode(Long appId, String message, User loginUser, List<String> images) {
+    public Flux<StreamChunk> chatToGenCode(Long appId, String message, User loginUser, List<String> images) {
         // 1. 参数校验
         ThrowUtils.throwIf(appId == null || appId <= 0, ErrorCode.PARAMS_ERROR, "应用 ID 不能为空");
         ThrowUtils.throwIf(StrUtil.isBlank(message), ErrorCode.PARAMS_ERROR, "用户消息不能为空");
@@ -155,6 +160,11 @@ public class AppServiceImpl extends ServiceImpl<AppMapper, App> implements AppSe
 
     @Override
     public String deployApp(Long appId, User loginUser) {
+        return deployApp(appId, loginUser, DeployProgressListener.NONE);
+    }
+
+    @Override
+    public String deployApp(Long appId, User loginUser, DeployProgressListener progressListener) {
         // 1. 参数校验
         ThrowUtils.throwIf(appId == null || appId <= 0, ErrorCode.PARAMS_ERROR, "应用 ID 错误");
         ThrowUtils.throwIf(loginUser == null, ErrorCode.NOT_LOGIN_ERROR, "用户未登录");
@@ -186,30 +196,31 @@ public class AppServiceImpl extends ServiceImpl<AppMapper, App> implements AppSe
         CodeGenTypeEnum codeGenTypeEnum = CodeGenTypeEnum.getEnumByValue(codeGenType);
         if (codeGenTypeEnum == CodeGenTypeEnum.VUE_PROJECT) {
             // Vue 项目需要构建
-            boolean buildSuccess = vueProjectBuilder.buildProject(sourceDirPath);
-            ThrowUtils.throwIf(!buildSuccess, ErrorCode.SYSTEM_ERROR, "Vue 项目构建失败，请重试");
+            progressListener.onPhase(DeployPhaseEnum.BUILDING);
+            BuildResult buildResult = vueProjectBuilder.buildProject(sourceDirPath, VueBuildScheduler.Priority.DEPLOY,
+                    progressListener::onLog);
+            // 失败提示附带构建日志末尾，便于定位原因
+            ThrowUtils.throwIf(!buildResult.success(), ErrorCode.SYSTEM_ERROR, "Vue 项目构建失败：" + buildResult.describe());
             // 检查 dist 目录是否存在
             File distDir = new File(sourceDirPath, "dist");
             ThrowUtils.throwIf(!distDir.exists(), ErrorCode.SYSTEM_ERROR, "Vue 项目构建完成但未生成 dist 目录");
             // 构建完成后，需要将构建后的文件复制到部署目录
             sourceDir = distDir;
         }
-        // 8. 复制文件到部署目录
-        String deployDirPath = AppConstant.CODE_DEPLOY_ROOT_DIR + File.separator + deployKey;
+        // 8. 发布新的部署版本（写入独立的版本目录后原子切换，访问者不会看到部署到一半的内容）
+        progressListener.onPhase(DeployPhaseEnum.PUBLISHING);
         try {
-            FileUtil.copyContent(sourceDir, new File(deployDirPath), true);
+            deployVersionManager.publish(deployKey, sourceDir.toPath());
         } catch (Exception e) {
             throw new BusinessException(ErrorCode.SYSTEM_ERROR, "应用部署失败：" + e.getMessage());
         }
         // 9. 更新数据库
-        App updateApp = new App();
+        progressListener.onPhase(DeployPhaseEnum.SAVING);
         if (app.getAppName() == null) {
-            // 生成名称
-            AiCodeGeneratorService aiCodeGeneratorService = aiCodeGeneratorServiceFactory.getAiCodeGeneratorService(appId, codeGenTypeEnum);
-            String appName = aiCodeGeneratorService.generateAppName("生成应用名称");
-            ThrowUtils.throwIf(appName.length() == 0, ErrorCode.SYSTEM_ERROR, "AI 生成的名称不符合规范");
-            updateApp.setAppName(appName);
+            // 名称在后台生成，不阻塞部署：未就绪时先使用占位名称，生成完成后自动替换
+            appNameGenerator.fillPlaceholder(appId);
         }
+        App updateApp = new App();
         updateApp.setId(appId);
         updateApp.setDeployKey(deployKey);
         updateApp.setDeployedTime(LocalDateTime.now());
@@ -268,9 +279,8 @@ public class AppServiceImpl extends ServiceImpl<AppMapper, App> implements AppSe
         // 6. 设置应用创建者ID
         app.setUserId(loginUser.getId());
 
-        // 7. 使用AI智能路由服务，根据初始化提示词自动选择代码生成类型
-        AiCodeGenTypeRoutingService routingService = aiCodeGenTypeRoutingServiceFactory.createAiCodeGenTypeRoutingService();
-        CodeGenTypeEnum selectedCodeGenType = routingService.routeCodeGenType(appAddRequest.getInitPrompt());
+        // 7. 使用智能路由，根据初始化提示词自动选择代码生成类型（本地分类器优先，模糊时才调用 AI）
+        CodeGenTypeEnum selectedCodeGenType = codeGenTypeRouter.route(appAddRequest.getInitPrompt());
         app.setCodeGenType(selectedCodeGenType.getValue());
 
         // 8. 保存应用到数据库
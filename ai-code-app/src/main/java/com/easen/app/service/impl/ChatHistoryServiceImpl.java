@@ -4,6 +4,7 @@ package com.easen.app.service.impl;
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.crypto.digest.DigestUtil;
+import com.easen.ai.artifact.CodeArtifactStore;
 import com.easen.app.mapper.ChatHistoryMapper;
 import com.easen.app.service.ChatHistoryService;
 import com.easen.client.InnerUserService;
@@ -45,6 +46,9 @@ public class ChatHistoryServiceImpl extends ServiceImpl<ChatHistoryMapper, ChatH
     @Lazy
     private InnerUserService userService;
 
+    @Resource
+    private CodeArtifactStore codeArtifactStore;
+
     @Override
     public Page<ChatHistory> listAppChatHistoryByPage(Long appId, int pageSize,
                                                       LocalDateTime lastCreateTime) {
@@ -87,7 +91,8 @@ public class ChatHistoryServiceImpl extends ServiceImpl<ChatHistoryMapper, ChatH
      */
     private ChatHistoryVO convertToVO(ChatHistory chatHistory) {
         ChatHistoryVO vo = ChatHistoryVO.builder()
-                .message(chatHistory.getMessage())
+                // 展开代码产物引用，前端看到的仍是完整回复
+                .message(codeArtifactStore.expand(chatHistory.getMessage()))
                 .messageType(chatHistory.getMessageType())
                 .appId(chatHistory.getAppId())
                 .createTime(chatHistory.getCreateTime())
@@ -116,6 +121,10 @@ public class ChatHistoryServiceImpl extends ServiceImpl<ChatHistoryMapper, ChatH
         // 验证消息类型是否有效
         ChatHistoryMessageTypeEnum messageTypeEnum = ChatHistoryMessageTypeEnum.getEnumByValue(messageType);
         ThrowUtils.throwIf(messageTypeEnum == null, ErrorCode.PARAMS_ERROR, "不支持的消息类型: " + messageType);
+        // AI 回复中较大的代码块只保存引用，完整代码按内容哈希存储
+        if (messageTypeEnum == ChatHistoryMessageTypeEnum.AI) {
+            message = codeArtifactStore.compact(message);
+        }
         //相同消息生成唯一键,表示同一条消息
         String jsonStr = appId + message + messageType + userId + status;
         String onlyId = DigestUtil.md5Hex(jsonStr);
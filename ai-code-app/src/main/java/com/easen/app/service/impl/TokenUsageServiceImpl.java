@@ -0,0 +1,221 @@
+package com.easen.app.service.impl;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.StrUtil;
+import com.easen.app.mapper.AppTokenUsageMapper;
+import com.easen.app.service.TokenUsageService;
+import com.easen.common.exception.ErrorCode;
+import com.easen.common.exception.ThrowUtils;
+import com.easen.model.entity.AppTokenUsage;
+import com.easen.model.vo.TokenUsageVO;
+import com.mybatisflex.core.query.QueryWrapper;
+import com.mybatisflex.spring.service.impl.ServiceImpl;
+import dev.langchain4j.model.output.TokenUsage;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Token 用量 服务层实现。
+ * 每轮模型调用结束后只在内存中累加，由定时任务按 用户 + 应用 + 模型 + 日期 批量累加写入数据库
+ *
+ * @author <a>easen</a>
+ */
+@Slf4j
+@Service
+public class TokenUsageServiceImpl extends ServiceImpl<AppTokenUsageMapper, AppTokenUsage> implements TokenUsageService {
+
+    /**
+     * 单次批量写入的最大行数
+     */
+    private static final int FLUSH_BATCH_SIZE = 500;
+
+    /**
+     * 查询的最大天数
+     */
+    private static final int MAX_QUERY_DAYS = 90;
+
+    /**
+     * 尚未落库的用量增量
+     */
+    private final Map<UsageKey, UsageDelta> pendingUsage = new ConcurrentHashMap<>();
+
+    @Override
+    public void recordUsage(Long appId, Long userId, String modelName, TokenUsage tokenUsage) {
+        if (appId == null || tokenUsage == null) {
+            return;
+        }
+        UsageKey key = new UsageKey(
+                userId == null ? 0L : userId,
+                appId,
+                StrUtil.blankToDefault(modelName, "unknown"),
+                LocalDate.now());
+        UsageDelta delta = new UsageDelta(
+                nullToZero(tokenUsage.inputTokenCount()),
+                nullToZero(tokenUsage.outputTokenCount()),
+                nullToZero(tokenUsage.totalTokenCount()),
+                1);
+        pendingUsage.merge(key, delta, UsageDelta::plus);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${ai.token-usage.flush-interval-ms:10000}")
+    public synchronized void flushUsage() {
+        if (pendingUsage.isEmpty()) {
+            return;
+        }
+        // 逐个原子移除，移除之后到达的增量会重新生成条目，留给下一轮
+        Map<UsageKey, UsageDelta> snapshot = new LinkedHashMap<>();
+        for (UsageKey key : pendingUsage.keySet()) {
+            UsageDelta delta = pendingUsage.remove(key);
+            if (delta != null) {
+                snapshot.put(key, delta);
+            }
+        }
+        List<AppTokenUsage> usageList = snapshot.entrySet().stream()
+                .map(entry -> toEntity(entry.getKey(), entry.getValue()))
+                .toList();
+        try {
+            for (List<AppTokenUsage> batch : CollUtil.split(usageList, FLUSH_BATCH_SIZE)) {
+                this.mapper.batchUpsertUsage(batch);
+            }
+            log.debug("Token 用量落库完成，共 {} 条", usageList.size());
+        } catch (Exception e) {
+            // 写入失败时放回内存，等待下一轮重试
+            log.error("Token 用量落库失败，将在下一轮重试，共 {} 条", usageList.size(), e);
+            snapshot.forEach((key, delta) -> pendingUsage.merge(key, delta, UsageDelta::plus));
+        }
+    }
+
+    /**
+     * 应用关闭前落库剩余用量
+     */
+    @PreDestroy
+    public void destroy() {
+        flushUsage();
+    }
+
+    @Override
+    public List<TokenUsageVO> listAppTokenUsage(Long appId, int days) {
+        ThrowUtils.throwIf(appId == null || appId <= 0, ErrorCode.PARAMS_ERROR, "应用ID不能为空");
+        LocalDate startDate = getStartDate(days);
+        QueryWrapper queryWrapper = QueryWrapper.create()
+                .eq("appId", appId)
+                .ge("usageDate", startDate);
+        return mergePending(this.list(queryWrapper),
+                key -> key.appId().equals(appId) && !key.usageDate().isBefore(startDate));
+    }
+
+    @Override
+    public List<TokenUsageVO> listUserTokenUsage(Long userId, int days) {
+        ThrowUtils.throwIf(userId == null || userId <= 0, ErrorCode.PARAMS_ERROR, "用户ID不能为空");
+        LocalDate startDate = getStartDate(days);
+        QueryWrapper queryWrapper = QueryWrapper.create()
+                .eq("userId", userId)
+                .ge("usageDate", startDate);
+        return mergePending(this.list(queryWrapper),
+                key -> key.userId().equals(userId) && !key.usageDate().isBefore(startDate));
+    }
+
+    @Override
+    public long getUserTodayTotalTokens(Long userId) {
+        return listUserTokenUsage(userId, 1).stream()
+                .mapToLong(TokenUsageVO::getTotalTokens)
+                .sum();
+    }
+
+    private LocalDate getStartDate(int days) {
+        ThrowUtils.throwIf(days <= 0 || days > MAX_QUERY_DAYS, ErrorCode.PARAMS_ERROR, "查询天数必须在1-" + MAX_QUERY_DAYS + "之间");
+        return LocalDate.now().minusDays(days - 1);
+    }
+
+    /**
+     * 合并数据库中的用量和内存中尚未落库的增量
+     */
+    private List<TokenUsageVO> mergePending(List<AppTokenUsage> persisted, Predicate<UsageKey> filter) {
+        Map<UsageKey, UsageDelta> merged = new LinkedHashMap<>();
+        for (AppTokenUsage usage : persisted) {
+            UsageKey key = new UsageKey(usage.getUserId(), usage.getAppId(), usage.getModelName(), usage.getUsageDate());
+            UsageDelta delta = new UsageDelta(
+                    nullToZero(usage.getInputTokens()),
+                    nullToZero(usage.getOutputTokens()),
+                    nullToZero(usage.getTotalTokens()),
+                    nullToZero(usage.getRequestCount()));
+            merged.merge(key, delta, UsageDelta::plus);
+        }
+        pendingUsage.forEach((key, delta) -> {
+            if (filter.test(key)) {
+                merged.merge(key, delta, UsageDelta::plus);
+            }
+        });
+        List<TokenUsageVO> result = new ArrayList<>(merged.size());
+        merged.forEach((key, delta) -> result.add(toVO(key, delta)));
+        result.sort(Comparator.comparing(TokenUsageVO::getUsageDate).reversed()
+                .thenComparing(TokenUsageVO::getAppId)
+                .thenComparing(TokenUsageVO::getModelName));
+        return result;
+    }
+
+    private AppTokenUsage toEntity(UsageKey key, UsageDelta delta) {
+        return AppTokenUsage.builder()
+                .id(IdUtil.getSnowflakeNextId())
+                .userId(key.userId())
+                .appId(key.appId())
+                .modelName(key.modelName())
+                .usageDate(key.usageDate())
+                .inputTokens(delta.inputTokens())
+                .outputTokens(delta.outputTokens())
+                .totalTokens(delta.totalTokens())
+                .requestCount(delta.requestCount())
+                .build();
+    }
+
+    private TokenUsageVO toVO(UsageKey key, UsageDelta delta) {
+        TokenUsageVO vo = new TokenUsageVO();
+        vo.setUserId(key.userId());
+        vo.setAppId(key.appId());
+        vo.setModelName(key.modelName());
+        vo.setUsageDate(key.usageDate());
+        vo.setInputTokens(delta.inputTokens());
+        vo.setOutputTokens(delta.outputTokens());
+        vo.setTotalTokens(delta.totalTokens());
+        vo.setRequestCount(delta.requestCount());
+        return vo;
+    }
+
+    private static long nullToZero(Number value) {
+        return Objects.isNull(value) ? 0L : value.longValue();
+    }
+
+    /**
+     * 聚合维度
+     */
+    private record UsageKey(Long userId, Long appId, String modelName, LocalDate usageDate) {
+    }
+
+    /**
+     * 用量增量（不可变，通过 merge 原子累加）
+     */
+    private record UsageDelta(long inputTokens, long outputTokens, long totalTokens, long requestCount) {
+
+        UsageDelta plus(UsageDelta other) {
+            return new UsageDelta(
+                    inputTokens + other.inputTokens,
+                    outputTokens + other.outputTokens,
+                    totalTokens + other.totalTokens,
+                    requestCount + other.requestCount);
+        }
+    }
+}
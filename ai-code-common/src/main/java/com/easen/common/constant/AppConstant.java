@@ -7,6 +7,26 @@ public interface AppConstant {
      */
     String CODE_OUTPUT_ROOT_DIR = System.getProperty("user.dir") + "/tmp/code_output";
 
+    /**
+     * 内容寻址存储目录（按内容哈希存储，生成目录、部署目录和代码产物共用）
+     */
+    String CODE_BLOB_ROOT_DIR = System.getProperty("user.dir") + "/tmp/code_blobs";
+
+    /**
+     * 项目快照清单目录
+     */
+    String CODE_SNAPSHOT_ROOT_DIR = System.getProperty("user.dir") + "/tmp/code_snapshots";
+
+    /**
+     * Vue 项目共享依赖存储目录（按依赖摘要安装，项目中的 node_modules 链接到这里）
+     */
+    String CODE_NODE_MODULES_ROOT_DIR = System.getProperty("user.dir") + "/tmp/node_modules_store";
+
+    /**
+     * Vue 项目构建记录目录（依赖清单和源码指纹，用于跳过未变化的安装和构建）
+     */
+    String CODE_BUILD_META_ROOT_DIR = System.getProperty("user.dir") + "/tmp/build_meta";
+
     /**
      * 应用部署目录
      */
@@ -17,4 +37,9 @@ public interface AppConstant {
      */
     String CODE_DEPLOY_HOST = "http://localhost";
 
+    /**
+     * AI 名称生成完成前使用的占位应用名称
+     */
+    String APP_NAME_PLACEHOLDER = "未命名应用";
+
 }
@@ -0,0 +1,347 @@
+package com.easen.common.manager;
+
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import com.easen.common.constant.AppConstant;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystemException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * 本地内容寻址存储管理器
+ * 文件内容按 SHA-256 只存一份（{根目录}/{前两位}/{摘要}），存储对象写入后设为只读。
+ * <p>
+ * 只有发布后不再改动的目录（部署版本）通过 {@link #link(String, Path)} 硬链接到存储对象，与存储共享同一份数据；
+ * 工作目录等会被原地改写的目录（npm 会改写 package.json 等文件）一律通过 {@link #materialize(String, Path)} 复制，
+ * 改写不会影响存储和其他目录。
+ * <p>
+ * 不再被引用的对象由 {@link #sweep(Set, Duration)} 回收：快照清单等引用方提供根集合，
+ * 部署版本的引用通过硬链接数识别，最近写入或访问过的对象在宽限期内保留
+ */
+@Slf4j
+@Component
+public class BlobManager {
+
+    private static final Pattern DIGEST_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    private static final Set<PosixFilePermission> READ_ONLY = Set.of(
+            PosixFilePermission.OWNER_READ, PosixFilePermission.GROUP_READ, PosixFilePermission.OTHERS_READ);
+
+    private final Path rootDir = Paths.get(AppConstant.CODE_BLOB_ROOT_DIR);
+
+    /**
+     * 保存内容
+     *
+     * @param content 文本内容（UTF-8）
+     * @return SHA-256 摘要
+     */
+    public String put(String content) {
+        return put(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 保存内容
+     *
+     * @param content 字节内容
+     * @return SHA-256 摘要
+     */
+    public String put(byte[] content) {
+        String digest = DigestUtil.sha256Hex(content);
+        Path blob = getBlobPath(digest);
+        try {
+            if (!touch(blob)) {
+                Files.createDirectories(blob.getParent());
+                // 先写临时文件再原子移动，避免并发写入时读到半个文件
+                Path tempFile = Files.createTempFile(blob.getParent(), digest, ".tmp");
+                Files.write(tempFile, content);
+                publish(tempFile, blob);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("保存内容失败: " + digest, e);
+        }
+        return digest;
+    }
+
+    /**
+     * 保存已有文件的内容，流式计算摘要，存储中已有相同内容时不再复制
+     *
+     * @param file 文件
+     * @return SHA-256 摘要
+     */
+    public String putFile(Path file) {
+        try {
+            String digest = digest(file);
+            Path blob = getBlobPath(digest);
+            if (!touch(blob)) {
+                Files.createDirectories(blob.getParent());
+                Path tempFile = Files.createTempFile(blob.getParent(), digest, ".tmp");
+                Files.copy(file, tempFile, StandardCopyOption.REPLACE_EXISTING);
+                publish(tempFile, blob);
+            }
+            return digest;
+        } catch (IOException e) {
+            throw new UncheckedIOException("保存文件内容失败: " + file, e);
+        }
+    }
+
+    /**
+     * 读取内容
+     *
+     * @param digest SHA-256 摘要
+     * @return 文本内容，不存在时返回 null
+     */
+    public String read(String digest) {
+        Path blob = getBlobPath(digest);
+        if (!Files.exists(blob)) {
+            return null;
+        }
+        try {
+            return Files.readString(blob, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取内容失败: " + digest, e);
+        }
+    }
+
+    /**
+     * 是否存在该内容
+     */
+    public boolean exists(String digest) {
+        return Files.exists(getBlobPath(digest));
+    }
+
+    /**
+     * 把存储中的内容复制到目标路径（先写临时文件，再原子替换目标文件）
+     * 目标是独立的可写文件，用于之后可能被改写的目录
+     *
+     * @param digest SHA-256 摘要
+     * @param target 目标文件
+     */
+    public void materialize(String digest, Path target) {
+        Path blob = getBlobPath(digest);
+        try {
+            Files.createDirectories(target.getParent());
+            Path tempFile = tempFileFor(target);
+            // 按流复制内容：直接复制文件会连同只读权限一起复制过去
+            try (InputStream in = Files.newInputStream(blob)) {
+                Files.copy(in, tempFile, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("写入文件失败: " + target, e);
+        }
+    }
+
+    /**
+     * 把存储中的内容硬链接到目标路径（不支持硬链接时退化为复制），再原子替换目标文件
+     * 目标与存储对象共享同一份只读数据，只能用于发布后不再改动的目录
+     *
+     * @param digest SHA-256 摘要
+     * @param target 目标文件
+     */
+    public void link(String digest, Path target) {
+        Path blob = getBlobPath(digest);
+        try {
+            Files.createDirectories(target.getParent());
+            Path tempFile = tempFileFor(target);
+            try {
+                try {
+                    Files.createLink(tempFile, blob);
+                } catch (UnsupportedOperationException | FileSystemException e) {
+                    Files.copy(blob, tempFile, StandardCopyOption.REPLACE_EXISTING);
+                }
+                Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("链接文件失败: " + target, e);
+        }
+    }
+
+    /**
+     * 写入文本文件（先写临时文件，再原子替换目标文件）
+     * 工作目录中的文件会被反复改写，不进入存储，快照时再按内容去重
+     *
+     * @param target  目标文件
+     * @param content 文本内容
+     */
+    public void writeFile(Path target, String content) {
+        try {
+            Files.createDirectories(target.getParent());
+            Path tempFile = tempFileFor(target);
+            try {
+                Files.writeString(tempFile, content, StandardCharsets.UTF_8);
+                Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("写入文件失败: " + target, e);
+        }
+    }
+
+    /**
+     * 把源目录中的所有文件放到目标目录，相同内容只存一份，目标中的文件为硬链接（见 {@link #link(String, Path)}）
+     * 目标目录中已有的同名文件会被替换，其余文件保留
+     *
+     * @param sourceDir 源目录
+     * @param targetDir 目标目录
+     * @return 处理的文件数
+     */
+    public int linkTree(Path sourceDir, Path targetDir) {
+        int[] count = {0};
+        try {
+            // 源目录可能是符号链接（项目目录指向当前版本），从实际目录开始遍历
+            Path root = sourceDir.toRealPath();
+            Files.walkFileTree(root, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (attrs.isRegularFile()) {
+                        link(putFile(file), targetDir.resolve(root.relativize(file).toString()));
+                        count[0]++;
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("链接目录失败: " + sourceDir + " -> " + targetDir, e);
+        }
+        return count[0];
+    }
+
+    /**
+     * 回收不再被引用的存储对象
+     * 以下对象会保留：在根集合中的；硬链接数大于 1 的（仍被部署版本等目录引用，无法获取链接数时同样保留）；
+     * 宽限期内写入或被再次保存过的（正在进行的快照、部署和对话中的代码产物尚未记录到根集合）
+     *
+     * @param roots   仍被引用的摘要
+     * @param minIdle 宽限期
+     * @return 回收的对象数
+     */
+    public int sweep(Set<String> roots, Duration minIdle) {
+        if (!Files.isDirectory(rootDir)) {
+            return 0;
+        }
+        Instant cutoff = Instant.now().minus(minIdle);
+        int[] deleted = {0};
+        try {
+            Files.walkFileTree(rootDir, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    String name = file.getFileName().toString();
+                    boolean blob = DIGEST_PATTERN.matcher(name).matches();
+                    // 写入中断留下的临时文件同样按宽限期清理
+                    if (!blob && !name.endsWith(".tmp")) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                    if (blob && (roots.contains(name) || isLinked(file))) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                    try {
+                        // 重新读取修改时间，遍历期间被再次保存的对象不回收
+                        if (Files.getLastModifiedTime(file).toInstant().isBefore(cutoff)) {
+                            Files.deleteIfExists(file);
+                            deleted[0]++;
+                        }
+                    } catch (IOException e) {
+                        log.warn("回收存储对象失败: {}, 错误: {}", file, e.getMessage());
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("回收存储对象失败", e);
+        }
+        return deleted[0];
+    }
+
+    /**
+     * 计算文件的 SHA-256 摘要
+     */
+    public String digest(Path file) throws IOException {
+        MessageDigest messageDigest = DigestUtil.digester("SHA-256").getDigest();
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                messageDigest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(messageDigest.digest());
+    }
+
+    /**
+     * 获取存储对象的路径
+     */
+    public Path getBlobPath(String digest) {
+        return rootDir.resolve(digest.substring(0, 2)).resolve(digest);
+    }
+
+    /**
+     * 对象已存在时刷新修改时间，表示最近被使用过，回收时在宽限期内保留
+     *
+     * @return 对象是否存在
+     */
+    private boolean touch(Path blob) throws IOException {
+        if (!Files.exists(blob)) {
+            return false;
+        }
+        try {
+            Files.setLastModifiedTime(blob, FileTime.from(Instant.now()));
+            return true;
+        } catch (NoSuchFileException e) {
+            // 刚好被回收，重新写入
+            return false;
+        }
+    }
+
+    /**
+     * 把写好的临时文件设为只读后原子移动为存储对象
+     */
+    private void publish(Path tempFile, Path blob) throws IOException {
+        PosixFileAttributeView posixView = Files.getFileAttributeView(tempFile, PosixFileAttributeView.class);
+        if (posixView != null) {
+            posixView.setPermissions(READ_ONLY);
+        }
+        Files.move(tempFile, blob, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * 存储对象是否还有其他硬链接
+     */
+    private static boolean isLinked(Path blob) {
+        try {
+            return ((Number) Files.getAttribute(blob, "unix:nlink")).intValue() > 1;
+        } catch (UnsupportedOperationException | IllegalArgumentException | IOException e) {
+            return true;
+        }
+    }
+
+    private static Path tempFileFor(Path target) {
+        return target.resolveSibling("." + target.getFileName() + "." + IdUtil.fastSimpleUUID() + ".tmp");
+    }
+}
@@ -0,0 +1,17 @@
+package com.easen.common.manager;
+
+import java.util.Set;
+
+/**
+ * 内容寻址存储的引用方
+ * 回收存储对象前收集所有引用方仍在使用的摘要，这些对象不会被回收
+ */
+public interface BlobRootProvider {
+
+    /**
+     * 收集仍在使用的存储对象摘要
+     *
+     * @param roots 摘要集合，实现方向其中添加
+     */
+    void collectBlobRoots(Set<String> roots);
+}
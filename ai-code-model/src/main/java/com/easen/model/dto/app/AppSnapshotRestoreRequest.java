@@ -0,0 +1,21 @@
+package com.easen.model.dto.app;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+@Data
+public class AppSnapshotRestoreRequest implements Serializable {
+
+    /**
+     * 应用 id
+     */
+    private Long appId;
+
+    /**
+     * 快照 id
+     */
+    private Long snapshotId;
+
+    private static final long serialVersionUID = 1L;
+}
@@ -0,0 +1,99 @@
+package com.easen.model.entity;
+
+import com.mybatisflex.annotation.Column;
+import com.mybatisflex.annotation.Id;
+import com.mybatisflex.annotation.KeyType;
+import com.mybatisflex.annotation.Table;
+import com.mybatisflex.core.keygen.KeyGenerators;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 应用 Token 用量 实体类。
+ * 按 用户 + 应用 + 模型 + 日期 聚合
+ *
+ * @author <a>easen</a>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("app_token_usage")
+public class AppTokenUsage implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * id
+     */
+    @Id(keyType = KeyType.Generator, value = KeyGenerators.snowFlakeId)
+    private Long id;
+
+    /**
+     * 用户id
+     */
+    @Column("userId")
+    private Long userId;
+
+    /**
+     * 应用id
+     */
+    @Column("appId")
+    private Long appId;
+
+    /**
+     * 模型名称
+     */
+    @Column("modelName")
+    private String modelName;
+
+    /**
+     * 统计日期
+     */
+    @Column("usageDate")
+    private LocalDate usageDate;
+
+    /**
+     * 输入 token 数
+     */
+    @Column("inputTokens")
+    private Long inputTokens;
+
+    /**
+     * 输出 token 数
+     */
+    @Column("outputTokens")
+    private Long outputTokens;
+
+    /**
+     * 总 token 数
+     */
+    @Column("totalTokens")
+    private Long totalTokens;
+
+    /**
+     * 模型调用次数
+     */
+    @Column("requestCount")
+    private Long requestCount;
+
+    /**
+     * 创建时间
+     */
+    @Column("createTime")
+    private LocalDateTime createTime;
+
+    /**
+     * 更新时间
+     */
+    @Column("updateTime")
+    private LocalDateTime updateTime;
+}
@@ -0,0 +1,51 @@
+package com.easen.model.enums;
+
+import cn.hutool.core.util.ObjUtil;
+import lombok.Getter;
+
+/**
+ * 部署任务阶段枚举
+ */
+@Getter
+public enum DeployPhaseEnum {
+
+    QUEUED("排队中", "queued"),
+    BUILDING("构建项目", "building"),
+    PUBLISHING("发布文件", "publishing"),
+    SAVING("保存部署信息", "saving"),
+    SUCCEEDED("部署成功", "succeeded"),
+    FAILED("部署失败", "failed");
+
+    private final String text;
+    private final String value;
+
+    DeployPhaseEnum(String text, String value) {
+        this.text = text;
+        this.value = value;
+    }
+
+    /**
+     * 是否为结束状态
+     */
+    public boolean isFinished() {
+        return this == SUCCEEDED || this == FAILED;
+    }
+
+    /**
+     * 根据 value 获取枚举
+     *
+     * @param value 枚举值的value
+     * @return 枚举值
+     */
+    public static DeployPhaseEnum getEnumByValue(String value) {
+        if (ObjUtil.isEmpty(value)) {
+            return null;
+        }
+        for (DeployPhaseEnum anEnum : DeployPhaseEnum.values()) {
+            if (anEnum.value.equals(value)) {
+                return anEnum;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,53 @@
+package com.easen.model.vo;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 部署任务视图类
+ *
+ * @author <a>easen</a>
+ */
+@Data
+public class DeployJobVO implements Serializable {
+
+    /**
+     * 任务id
+     */
+    private String jobId;
+
+    /**
+     * 应用id
+     */
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long appId;
+
+    /**
+     * 当前阶段
+     */
+    private String phase;
+
+    /**
+     * 阶段说明或失败原因
+     */
+    private String message;
+
+    /**
+     * 部署成功后的访问地址
+     */
+    private String deployUrl;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createTime;
+
+    /**
+     * 更新时间
+     */
+    private LocalDateTime updateTime;
+}
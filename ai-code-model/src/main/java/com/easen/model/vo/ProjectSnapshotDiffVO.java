@@ -0,0 +1,44 @@
+package com.easen.model.vo;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 项目快照差异视图类
+ *
+ * @author <a>easen</a>
+ */
+@Data
+public class ProjectSnapshotDiffVO implements Serializable {
+
+    /**
+     * 起始快照id
+     */
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long fromSnapshotId;
+
+    /**
+     * 目标快照id
+     */
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long toSnapshotId;
+
+    /**
+     * 新增的文件
+     */
+    private List<String> addedFiles;
+
+    /**
+     * 删除的文件
+     */
+    private List<String> removedFiles;
+
+    /**
+     * 内容有变化的文件
+     */
+    private List<String> modifiedFiles;
+}
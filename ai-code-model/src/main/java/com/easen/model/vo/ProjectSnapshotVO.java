@@ -0,0 +1,44 @@
+package com.easen.model.vo;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 项目快照视图类
+ *
+ * @author <a>easen</a>
+ */
+@Data
+public class ProjectSnapshotVO implements Serializable {
+
+    /**
+     * 快照id
+     */
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long snapshotId;
+
+    /**
+     * 应用id
+     */
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long appId;
+
+    /**
+     * 文件数
+     */
+    private Integer fileCount;
+
+    /**
+     * 文件总字节数
+     */
+    private Long totalBytes;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createTime;
+}
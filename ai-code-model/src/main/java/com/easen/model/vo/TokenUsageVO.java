@@ -0,0 +1,59 @@
+package com.easen.model.vo;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Token 用量视图类
+ *
+ * @author <a>easen</a>
+ */
+@Data
+public class TokenUsageVO implements Serializable {
+
+    /**
+     * 用户id
+     */
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long userId;
+
+    /**
+     * 应用id
+     */
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long appId;
+
+    /**
+     * 模型名称
+     */
+    private String modelName;
+
+    /**
+     * 统计日期
+     */
+    private LocalDate usageDate;
+
+    /**
+     * 输入 token 数
+     */
+    private Long inputTokens;
+
+    /**
+     * 输出 token 数
+     */
+    private Long outputTokens;
+
+    /**
+     * 总 token 数
+     */
+    private Long totalTokens;
+
+    /**
+     * 模型调用次数
+     */
+    private Long requestCount;
+}